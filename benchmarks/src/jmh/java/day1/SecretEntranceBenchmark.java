@@ -0,0 +1,45 @@
+package day1;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import common.MappedInput;
+
+@State(Scope.Benchmark)
+public class SecretEntranceBenchmark {
+    @Param({"10000", "1000000", "20000000"})
+    public int rotations;
+
+    private MappedInput input;
+
+    @Setup
+    public void generate() throws Exception {
+        Random random = new Random(1);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < rotations; i++)
+            text.append(random.nextBoolean() ? 'L' : 'R').append(random.nextInt(1000)).append('\n');
+
+        Path file = Files.createTempFile("day1", ".txt");
+        file.toFile().deleteOnExit();
+        Files.writeString(file, text);
+        input = MappedInput.open(file);
+    }
+
+    @Benchmark
+    public long serial() {
+        input.rewind();
+        return RotationList.parse(input).countZeroes(50);
+    }
+
+    @Benchmark
+    public long scan() {
+        return DialScan.parse(input).countZeroes(50);
+    }
+}
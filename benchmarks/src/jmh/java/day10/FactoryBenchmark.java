@@ -0,0 +1,44 @@
+package day10;
+
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Benchmark)
+public class FactoryBenchmark {
+    @Param({"8", "16", "64"})
+    public int buttonCount;
+
+    @Param({"10", "40"})
+    public int lights;
+
+    private long[] buttons;
+    private long target;
+
+    @Setup
+    public void generate() {
+        Random random = new Random(10);
+
+        buttons = new long[buttonCount];
+        for (int i = 0; i < buttonCount; i++) {
+            for (int k = 1 + random.nextInt(4); k > 0; k--)
+                buttons[i] |= 1L << random.nextInt(lights);
+        }
+
+        // xor a random subset of buttons so the target is always reachable
+        target = 0;
+        for (long button : buttons) {
+            if (random.nextBoolean())
+                target ^= button;
+        }
+    }
+
+    @Benchmark
+    public int minPresses() {
+        return LightSolver.minPresses(buttons, target);
+    }
+}
@@ -0,0 +1,61 @@
+package day11;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import common.MappedInput;
+
+@State(Scope.Benchmark)
+public class ReactorBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    public int nodes;
+
+    private PathGraph graph;
+
+    @Setup(Level.Trial)
+    public void generate() throws Exception {
+        Random random = new Random(11);
+
+        // Random tree hanging off svr -> dac -> fft, with every leaf wired to out. Path counts grow exponentially
+        // in anything denser and overflow long, this keeps them at the number of leaves.
+        String[] names = new String[nodes];
+        for (int i = 0; i < nodes; i++)
+            names[i] = "n" + i;
+        names[0] = "svr";
+        names[1] = "dac";
+        names[2] = "fft";
+
+        StringBuilder[] lines = new StringBuilder[nodes];
+        for (int i = 0; i < nodes; i++)
+            lines[i] = new StringBuilder(names[i]).append(':');
+        for (int i = 1; i < nodes; i++) {
+            int parent = i < 3 ? i - 1 : 2 + random.nextInt(i - 2);
+            lines[parent].append(' ').append(names[i]);
+        }
+
+        StringBuilder text = new StringBuilder();
+        for (StringBuilder line : lines) {
+            if (line.charAt(line.length() - 1) == ':')
+                line.append(" out");
+            text.append(line).append('\n');
+        }
+
+        Path file = Files.createTempFile("day11", ".txt");
+        file.toFile().deleteOnExit();
+        Files.writeString(file, text);
+        graph = PathGraph.parse(MappedInput.open(file));
+    }
+
+    @Benchmark
+    public long countPaths() {
+        return graph.countPaths("svr", "out", "dac", "fft");
+    }
+}
@@ -0,0 +1,35 @@
+package day2;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GiftShopBenchmark {
+    // width of the id range that gets checked
+    @Param({"1000", "100000"})
+    public int size;
+
+    private static final long START = 1_188_511_880L;
+
+    @Benchmark
+    public long isInvalid() {
+        long sum = 0;
+        for (long i = START; i < START + size; i++) {
+            if (GiftShop.isInvalid(i))
+                sum += i;
+        }
+        return sum;
+    }
+
+    // cost only depends on the number of digits, not on size
+    @Benchmark
+    public long sumInRange() {
+        return RepeatedIds.sumInRange(START, START + size);
+    }
+}
@@ -0,0 +1,38 @@
+package day3;
+
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Benchmark)
+public class LobbyBenchmark {
+    // batteries in the bank
+    @Param({"100", "10000", "1000000"})
+    public int length;
+
+    @Param({"2", "12"})
+    public int digits;
+
+    private byte[] bank;
+    private byte[] scratch;
+
+    @Setup
+    public void generate() {
+        Random random = new Random(3);
+        bank = new byte[length];
+        for (int i = 0; i < length; i++)
+            bank[i] = (byte) ('1' + random.nextInt(9));
+        scratch = new byte[length];
+    }
+
+    @Benchmark
+    public long maxSubsequence() {
+        // the selection is done in place, so it works on a fresh copy every time
+        System.arraycopy(bank, 0, scratch, 0, length);
+        return Lobby.maxSubsequence(scratch, 0, length, digits);
+    }
+}
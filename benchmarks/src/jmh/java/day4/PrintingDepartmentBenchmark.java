@@ -0,0 +1,52 @@
+package day4;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import common.MappedInput;
+
+@State(Scope.Benchmark)
+public class PrintingDepartmentBenchmark {
+    // the grid is size x size
+    @Param({"100", "1000", "5000"})
+    public int size;
+
+    private MappedInput input;
+    private RollGrid grid;
+
+    @Setup(Level.Trial)
+    public void generate() throws Exception {
+        Random random = new Random(4);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++)
+                text.append(random.nextInt(100) < 70 ? '@' : '.');
+            text.append('\n');
+        }
+
+        Path file = Files.createTempFile("day4", ".txt");
+        file.toFile().deleteOnExit();
+        Files.writeString(file, text);
+        input = MappedInput.open(file);
+    }
+
+    @Setup(Level.Invocation)
+    public void reset() {
+        // removeAll empties the grid as it goes
+        input.rewind();
+        grid = RollGrid.parse(input);
+    }
+
+    @Benchmark
+    public long removeAll() {
+        return grid.removeAll();
+    }
+}
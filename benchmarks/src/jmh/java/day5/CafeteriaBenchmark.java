@@ -0,0 +1,67 @@
+package day5;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Benchmark)
+public class CafeteriaBenchmark {
+    @Param({"100", "10000", "1000000"})
+    public int ranges;
+
+    private static final int QUERIES = 1000;
+
+    private TreeSet<long[]> unmerged;
+    private TreeSet<long[]> merged;
+    private long[] queries;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        Random random = new Random(5);
+
+        Cafeteria.freshRange.clear();
+        for (int i = 0; i < ranges; i++) {
+            long start = (random.nextLong() & Long.MAX_VALUE) % 1_000_000_000_000L;
+            long end = start + random.nextInt(1_000_000_000);
+            Cafeteria.addRange(start, end);
+        }
+        unmerged = new TreeSet<>(Cafeteria.freshRange);
+
+        Cafeteria.mergeRanges();
+        merged = Cafeteria.freshRange;
+
+        queries = new long[QUERIES];
+        for (int i = 0; i < QUERIES; i++)
+            queries[i] = (random.nextLong() & Long.MAX_VALUE) % 1_000_000_000_000L;
+    }
+
+    @Setup(Level.Invocation)
+    public void reset() {
+        // mergeRanges swaps the static set, so every invocation starts again from the raw ranges
+        Cafeteria.freshRange = new TreeSet<>(unmerged);
+    }
+
+    @Benchmark
+    public TreeSet<long[]> mergeRanges() {
+        Cafeteria.mergeRanges();
+        return Cafeteria.freshRange;
+    }
+
+    @Benchmark
+    public int isInRange() {
+        Cafeteria.freshRange = merged;
+
+        int count = 0;
+        for (long ingredient : queries) {
+            if (Cafeteria.isInRange(ingredient))
+                count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,50 @@
+package day5;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+// readers and a writer hitting the same set at once
+@State(Scope.Group)
+public class ConcurrentIntervalSetBenchmark {
+    // number of ranges already in the set when the run starts
+    @Param({"1000", "100000"})
+    public int ranges;
+
+    private static final long ID_SPACE = 1_000_000_000_000L;
+
+    private ConcurrentIntervalSet fresh;
+
+    @Setup
+    public void generate() {
+        fresh = new ConcurrentIntervalSet();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < ranges; i++) {
+            long start = random.nextLong(ID_SPACE);
+            fresh.addRange(start, start + random.nextLong(1_000_000));
+        }
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(3)
+    public boolean isInRange() {
+        return fresh.isInRange(ThreadLocalRandom.current().nextLong(ID_SPACE));
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public long addRange() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long start = random.nextLong(ID_SPACE);
+        fresh.addRange(start, start + random.nextLong(1_000_000));
+        return fresh.countAllFresh();
+    }
+}
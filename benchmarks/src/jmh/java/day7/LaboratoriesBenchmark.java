@@ -0,0 +1,45 @@
+package day7;
+
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Benchmark)
+public class LaboratoriesBenchmark {
+    // the manifold is as tall as the puzzle input and size columns wide, taller ones overflow the timeline
+    // count. Splitters are on every other row, on the columns beams can reach like in the puzzle input
+    @Param({"141", "1000", "10000"})
+    public int size;
+
+    private static final int ROWS = 142;
+
+    private BeamEngine manifold;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        Random random = new Random(7);
+        int start = size / 2;
+        manifold = new BeamEngine(ROWS, size, start);
+        for (int i = 2; i < ROWS; i += 2) {
+            for (int j = (start + i / 2 + 1) & 1; j < size; j += 2) {
+                if (random.nextInt(100) < 40)
+                    manifold.setSplitter(i, j);
+            }
+        }
+    }
+
+    @Benchmark
+    public long countSplits() {
+        return manifold.countSplits();
+    }
+
+    @Benchmark
+    public long countTimelines() {
+        return manifold.countTimelines();
+    }
+}
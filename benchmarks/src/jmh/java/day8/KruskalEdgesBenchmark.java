@@ -0,0 +1,45 @@
+package day8;
+
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import common.DSU;
+import common.PointCloud;
+
+@State(Scope.Benchmark)
+public class KruskalEdgesBenchmark {
+    // every pair is materialised, so this stays well below the spatial benchmark's sizes
+    @Param({"100", "1000", "5000"})
+    public int points;
+
+    @Param({"10"})
+    public int connections;
+
+    private PointCloud cloud;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        Random random = new Random(8);
+        cloud = new PointCloud(3, points);
+        for (int i = 0; i < points; i++)
+            cloud.add(random.nextInt(100_000), random.nextInt(100_000), random.nextInt(100_000));
+    }
+
+    @Setup(Level.Invocation)
+    public void reset() {
+        Playground.dsu = new DSU(points);
+    }
+
+    @Benchmark
+    public long connectAll() {
+        KruskalEdges edges = KruskalEdges.sorted(cloud);
+        long ans = Playground.connect(cloud, edges, connections);
+        return ans + Playground.finishCircuit(cloud, edges);
+    }
+}
@@ -0,0 +1,36 @@
+package day9;
+
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import common.PointCloud;
+
+@State(Scope.Benchmark)
+public class MovieTheaterBenchmark {
+    @Param({"1000", "100000", "3000000"})
+    public int tiles;
+
+    @Param({"false", "true"})
+    public boolean parallel;
+
+    private PointCloud points;
+
+    @Setup
+    public void generate() {
+        Random random = new Random(9);
+        points = new PointCloud(2, tiles);
+        // past PointCloud.MAX_DISTANCE_COORDINATE on purpose, the area search takes the full int range
+        for (int i = 0; i < tiles; i++)
+            points.add(random.nextInt(1_000_000_000), random.nextInt(1_000_000_000));
+    }
+
+    @Benchmark
+    public long maxArea() {
+        return RectangleSearch.maxArea(points, parallel);
+    }
+}
@@ -0,0 +1,301 @@
+package common;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Runs a manifest of jobs side by side, one job a line: "day inputPath [outputPath]", day as for Runner,
+// relative paths from the manifest's directory, # starts a comment. The output defaults to the input path
+// with ".out" appended.
+// Every job gets a virtual thread, which only waits: for an I/O permit while it maps its input and faults
+// it in, and for the bounded platform pool that does the parse and solve. Each job writes to its own
+// buffered stream, handed to the day through Solver.setOutput, and every write that reaches the file takes
+// an I/O permit too. Days keep static state (Cafeteria's ranges, every day's out), so jobs of the same day
+// take turns while different days overlap.
+public class BatchRunner {
+    private static final long PAGE_SIZE = 4096;
+    private static final int OUTPUT_BUFFER = 1 << 16;
+
+    public record Job(int line, String day, Path input, Path output) {}
+
+    // stats is null when the job failed
+    public record Result(Job job, Runner.Stats stats, long wallNanos, Throwable error) {}
+
+    private final int ioPermits;
+    private final int cpuThreads;
+    private final int warmup;
+    private final int iterations;
+
+    private final ConcurrentHashMap<Class<?>, ReentrantLock> dayLocks = new ConcurrentHashMap<>();
+
+    public BatchRunner(int ioPermits, int cpuThreads, int warmup, int iterations) {
+        if(ioPermits < 1 || cpuThreads < 1 || iterations < 1)
+            throw new IllegalArgumentException("Need at least one I/O permit, one CPU thread and one iteration");
+
+        this.ioPermits = ioPermits;
+        this.cpuThreads = cpuThreads;
+        this.warmup = warmup;
+        this.iterations = iterations;
+    }
+
+    public static List<Job> readManifest(Path manifest) throws IOException {
+        Path base = manifest.toAbsolutePath().getParent();
+        List<Job> jobs = new ArrayList<>();
+
+        List<String> lines = Files.readAllLines(manifest);
+        for(int i=0; i<lines.size(); i++) {
+            String line = lines.get(i);
+            int comment = line.indexOf('#');
+            if(comment >= 0)
+                line = line.substring(0, comment);
+            line = line.trim();
+            if(line.isEmpty())
+                continue;
+
+            String[] parts = line.split("\\s+");
+            if(parts.length < 2 || parts.length > 3)
+                throw new IllegalArgumentException("Manifest line " + (i + 1) + " is not \"day inputPath [outputPath]\" : " + lines.get(i));
+
+            Path input = base.resolve(parts[1]);
+            Path output = parts.length == 3 ? base.resolve(parts[2]) : Paths.get(input + ".out");
+            jobs.add(new Job(i + 1, parts[0], input, output));
+        }
+
+        return jobs;
+    }
+
+    // results in manifest order
+    public List<Result> runAll(List<Job> jobs) throws InterruptedException {
+        Semaphore io = new Semaphore(ioPermits);
+        ExecutorService cpu = Executors.newFixedThreadPool(cpuThreads);
+
+        List<Future<Result>> futures = new ArrayList<>();
+        try (ExecutorService jobThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+            for(Job job : jobs)
+                futures.add(jobThreads.submit(() -> run(job, io, cpu)));
+        } finally {
+            cpu.shutdown();
+        }
+
+        List<Result> results = new ArrayList<>();
+        for(Future<Result> future : futures) {
+            try {
+                results.add(future.get());
+            } catch(ExecutionException e) {
+                // run() catches everything itself
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+        return results;
+    }
+
+    private Result run(Job job, Semaphore io, ExecutorService cpu) {
+        long startTime = System.nanoTime();
+        PrintStream sink = null;
+        Solver<?> solver = null;
+        ReentrantLock dayLock = null;
+
+        try {
+            solver = Runner.load(job.day());
+            dayLock = dayLocks.computeIfAbsent(solver.getClass(), c -> new ReentrantLock());
+            dayLock.lock();
+
+            MappedInput input;
+            io.acquire();
+            try {
+                input = MappedInput.open(job.input());
+                touch(input);
+                sink = new PrintStream(new BufferedOutputStream(new PermitOutputStream(Files.newOutputStream(job.output()), io), OUTPUT_BUFFER));
+            } finally {
+                io.release();
+            }
+
+            solver.setOutput(sink);
+            Solver<?> day = solver;
+            Runner.Stats stats = cpu.submit(() -> Runner.measure(day, input, warmup, iterations)).get();
+            Trace.flush();
+
+            stats.print(sink);
+            for(int i=0; i<stats.answers.size(); i++)
+                sink.printf("Answer Part %d : %s\n", i + 1, stats.answers.get(i));
+            close(sink);
+
+            return new Result(job, stats, System.nanoTime() - startTime, null);
+        } catch(Exception e) {
+            Throwable error = e instanceof ExecutionException ? e.getCause() : e;
+            if(sink != null) {
+                Trace.flush();
+                error.printStackTrace(sink);
+                sink.close();
+            }
+            return new Result(job, null, System.nanoTime() - startTime, error);
+        } finally {
+            if(solver != null)
+                solver.setOutput(utils.initializeOutputStream());
+            if(dayLock != null)
+                dayLock.unlock();
+        }
+    }
+
+    // PrintStream keeps write errors to itself
+    private static void close(PrintStream sink) throws IOException {
+        sink.close();
+        if(sink.checkError())
+            throw new IOException("Could not write the output");
+    }
+
+    // takes an I/O permit for every write that gets past the job's buffer, so output counts against --io
+    // the same as input does
+    private static class PermitOutputStream extends FilterOutputStream {
+        private final Semaphore io;
+
+        PermitOutputStream(OutputStream out, Semaphore io) {
+            super(out);
+            this.io = io;
+        }
+
+        private void acquire() throws IOException {
+            try {
+                io.acquire();
+            } catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for an I/O permit");
+            }
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            acquire();
+            try {
+                out.write(bytes, offset, length);
+            } finally {
+                io.release();
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            acquire();
+            try {
+                out.flush();
+            } finally {
+                io.release();
+            }
+        }
+    }
+
+    // reads one byte a page so the input is in memory before it takes a CPU thread
+    private static long touch(MappedInput input) {
+        long sum = 0;
+        for(long i=0; i<input.size(); i+=PAGE_SIZE)
+            sum += input.byteAt(i);
+        return sum;
+    }
+
+    public static void report(List<Result> results, long wallNanos, PrintStream out) {
+        out.println("\n---------------------------------");
+        out.printf("%-16s %-30s %20s %12s %12s %12s%n", "Day", "Input", "Answer", "Parse", "Solve", "Job");
+
+        long jobNanos = 0;
+        int failed = 0;
+        for(Result result : results) {
+            Job job = result.job();
+            jobNanos += result.wallNanos();
+            String input = job.input().toString();
+
+            if(result.stats() == null) {
+                failed++;
+                out.printf(Locale.ROOT, "%-16s %-30s %20s %12s %12s %9.3f ms  %s%n", job.day(), input, "-", "-", "-",
+                    result.wallNanos() / 1e6, result.error());
+                continue;
+            }
+
+            Runner.Stats stats = result.stats();
+            out.printf(Locale.ROOT, "%-16s %-30s %20s %9.3f ms %9.3f ms %9.3f ms%n", job.day(), input, String.join(" / ", stats.answers),
+                Runner.percentile(stats.parseNanos, 0.5) / 1e6, Runner.percentile(stats.solveNanos, 0.5) / 1e6,
+                result.wallNanos() / 1e6);
+        }
+
+        out.println("---------------------------------");
+        out.printf("%-20s : %d (%d failed)%n", "Jobs", results.size(), failed);
+        out.printf(Locale.ROOT, "%-20s : %.3f ms%n", "Sum of job times", jobNanos / 1e6);
+        out.printf(Locale.ROOT, "%-20s : %.3f ms%n", "Wall time", wallNanos / 1e6);
+        out.println("---------------------------------");
+    }
+
+    // one JSON line per job, the Runner stats object under "stats"
+    public static String toJson(Result result) {
+        Job job = result.job();
+        String head = String.format(Locale.ROOT, "{\"line\":%d,\"day\":\"%s\",\"input\":\"%s\",\"wallNanos\":%d,",
+            job.line(), escape(job.day()), escape(job.input().toString()), result.wallNanos());
+        if(result.stats() == null)
+            return head + "\"error\":\"" + escape(String.valueOf(result.error())) + "\"}";
+        return head + "\"stats\":" + result.stats().toJson() + "}";
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    // java common.BatchRunner <manifest> [-n iterations] [-w warmup] [--io permits] [--cpu threads] [--json]
+    public static void main(String[] args) {
+        if(args.length == 0) {
+            System.out.println("Usage : BatchRunner <manifest> [-n iterations] [-w warmup] [--io permits] [--cpu threads] [--json]");
+            return;
+        }
+
+        int iterations = 1, warmup = 0;
+        int io = 4, cpu = Runtime.getRuntime().availableProcessors();
+        boolean json = false;
+        try {
+            for(int i=1; i<args.length; i++) {
+                switch(args[i]) {
+                    case "-n" -> iterations = Integer.parseInt(args[++i]);
+                    case "-w" -> warmup = Integer.parseInt(args[++i]);
+                    case "--io" -> io = Integer.parseInt(args[++i]);
+                    case "--cpu" -> cpu = Integer.parseInt(args[++i]);
+                    case "--json" -> json = true;
+                    default -> throw new IllegalArgumentException("Unknown option : " + args[i]);
+                }
+            }
+
+            List<Job> jobs = readManifest(Paths.get(args[0]));
+            BatchRunner runner = new BatchRunner(io, cpu, warmup, iterations);
+
+            long startTime = System.nanoTime();
+            List<Result> results = runner.runAll(jobs);
+            long wallNanos = System.nanoTime() - startTime;
+            Trace.flush();
+
+            report(results, wallNanos, System.out);
+            if(json) {
+                for(Result result : results)
+                    System.out.println(toJson(result));
+            }
+        } catch (Exception e) {
+            System.out.println("Exception : " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+}
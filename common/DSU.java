@@ -1,26 +1,44 @@
 package common;
 
-import java.util.TreeSet;
-
 public class DSU {
-    private int[] par;
-    private int[] size;
+    private final int[] par;
+    private final int[] size;
+
+    // histogram of component sizes, count[s] = number of components with size s.
+    // The sizes that are present form a sorted doubly linked list through next[]/prev[] (indexed by size),
+    // with 0 as the sentinel, so prev[0] is the largest size and the top k are a walk of at most k steps.
+    // There are at most ~sqrt(2n) distinct sizes, which bounds the walk in union().
+    private final int[] count;
+    private final int[] next;
+    private final int[] prev;
+    private int components;
 
     public DSU(int n) {
         par = new int[n];
         size = new int[n];
+        count = new int[n + 1];
+        next = new int[n + 1];
+        prev = new int[n + 1];
 
         for(int i=0; i<n; i++) {
             par[i] = i;
-            size[i] = 0;
+            size[i] = 1;
+        }
+
+        components = n;
+        if(n > 0) {
+            count[1] = n;
+            link(0, 1);
         }
     }
 
+    // path halving, iterative so long chains can't blow the stack
     public int find(int i) {
-        if(i == par[i])
-            return i;
-
-        return par[i] = find(par[i]);
+        while(par[i] != i) {
+            par[i] = par[par[i]];
+            i = par[i];
+        }
+        return i;
     }
 
     public boolean union(int i, int j) {
@@ -36,12 +54,47 @@ public class DSU {
             j = temp;
         }
 
-        size[i] += size[j];
+        int a = size[i], b = size[j], merged = a + b;
+
+        // the new size goes in before a is removed, so the search can start at a
+        if(count[merged]++ == 0) {
+            int p = a;
+            while(next[p] != 0 && next[p] < merged)
+                p = next[p];
+            link(p, merged);
+        }
+        removeSize(a);
+        removeSize(b);
+
+        size[i] = merged;
         par[j] = i;
+        components--;
 
         return true;
     }
 
+    public int size(int i) {
+        return size[find(i)];
+    }
+
+    public int componentCount() {
+        return components;
+    }
+
+    private void link(int after, int s) {
+        next[s] = next[after];
+        prev[s] = after;
+        prev[next[after]] = s;
+        next[after] = s;
+    }
+
+    private void removeSize(int s) {
+        if(--count[s] == 0) {
+            next[prev[s]] = next[s];
+            prev[next[s]] = prev[s];
+        }
+    }
+
     public void print(java.io.PrintStream out) {
         out.println("\n=== DSU Structure ===");
         
@@ -83,17 +136,22 @@ public class DSU {
     }
 
     public int findMaxSize() {
-        int ans = 0;
-        for(int s : size) {
-            ans = Math.max(ans, s);
+        return prev.length > 0 ? prev[0] : 0;
+    }
+
+    // fills dst with the largest component sizes in decreasing order, returns how many were written
+    public int topSizes(int[] dst) {
+        int filled = 0;
+        for(int s = prev.length > 0 ? prev[0] : 0; s != 0 && filled < dst.length; s = prev[s]) {
+            for(int c = 0; c < count[s] && filled < dst.length; c++)
+                dst[filled++] = s;
         }
-        return ans;
+        return filled;
     }
 
-    public TreeSet<Integer> components() {
-        TreeSet<Integer> set = new TreeSet<>();
-        for(int i : par)
-            set.add(i);
-        return set;
+    public int[] topSizes(int k) {
+        int[] top = new int[Math.min(k, components)];
+        topSizes(top);
+        return top;
     }
 }
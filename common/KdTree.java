@@ -0,0 +1,273 @@
+package common;
+
+// Static k-d tree over a PointCloud (2D or 3D) that can list point pairs in increasing distance, lazily.
+//
+// The tree is implicit: order[] is a permutation of the point ids, the node for a range [lo, hi) is its
+// middle element and its children are the two halves. Every node stores the bounding box and the biggest
+// point id of its subtree, which is what the pruning below works with.
+//
+// Not thread safe, queries keep their state in fields.
+public class KdTree {
+    private final PointCloud points;
+    private final int dimensions;
+    private final int[][] coords;
+
+    private final int[] order;
+    private final byte[] axis;
+    private final int[][] boxMin;
+    private final int[][] boxMax;
+    private final int[] maxId;
+
+    // state of the running nextNeighbor query
+    private int queryId;
+    private long[] queryCoord = new long[3];
+    private long floorDist;
+    private int floorId;
+    private long bestDist;
+    private int bestId;
+
+    public KdTree(PointCloud points) {
+        // the pruning and the pair order work on squared distances
+        points.checkDistanceRange();
+        this.points = points;
+        this.dimensions = points.dimensions();
+        this.coords = new int[][]{points.xs(), points.ys(), points.zs()};
+
+        int n = points.size();
+        order = new int[n];
+        for(int i=0; i<n; i++)
+            order[i] = i;
+
+        axis = new byte[n];
+        boxMin = new int[dimensions][n];
+        boxMax = new int[dimensions][n];
+        maxId = new int[n];
+
+        build(0, n);
+    }
+
+    public int size() {
+        return order.length;
+    }
+
+    private void build(int lo, int hi) {
+        if(lo >= hi)
+            return;
+
+        int mid = (lo + hi) >>> 1;
+
+        // split along the widest side of the bounding box
+        int widest = 0;
+        long widestExtent = -1;
+        int biggestId = -1;
+        for(int d=0; d<dimensions; d++) {
+            int min = Integer.MAX_VALUE, max = Integer.MIN_VALUE;
+            int[] c = coords[d];
+            for(int k=lo; k<hi; k++) {
+                int v = c[order[k]];
+                min = Math.min(min, v);
+                max = Math.max(max, v);
+            }
+            boxMin[d][mid] = min;
+            boxMax[d][mid] = max;
+            if((long) max - min > widestExtent) {
+                widestExtent = (long) max - min;
+                widest = d;
+            }
+        }
+        for(int k=lo; k<hi; k++)
+            biggestId = Math.max(biggestId, order[k]);
+
+        axis[mid] = (byte) widest;
+        maxId[mid] = biggestId;
+
+        select(lo, hi - 1, mid, coords[widest]);
+        build(lo, mid);
+        build(mid + 1, hi);
+    }
+
+    // quickselect on order[lo..hi] so that order[k] holds the k-th smallest coordinate
+    private void select(int lo, int hi, int k, int[] c) {
+        while(lo < hi) {
+            int pivot = c[order[(lo + hi) >>> 1]];
+            int i = lo, j = hi;
+            while(i <= j) {
+                while(c[order[i]] < pivot) i++;
+                while(c[order[j]] > pivot) j--;
+                if(i <= j) {
+                    int temp = order[i];
+                    order[i] = order[j];
+                    order[j] = temp;
+                    i++;
+                    j--;
+                }
+            }
+            if(k <= j)
+                hi = j;
+            else if(k >= i)
+                lo = i;
+            else
+                return;
+        }
+    }
+
+    // Closest point j > id whose (distance, j) comes strictly after (afterDist, afterId), -1 if there is none.
+    // Calling it again with the previous answer walks the neighbours of id in increasing distance.
+    public int nextNeighbor(int id, long afterDist, int afterId) {
+        queryId = id;
+        for(int d=0; d<dimensions; d++)
+            queryCoord[d] = coords[d][id];
+        floorDist = afterDist;
+        floorId = afterId;
+        bestDist = Long.MAX_VALUE;
+        bestId = -1;
+
+        search(0, order.length);
+
+        return bestId;
+    }
+
+    // distance of the last successful nextNeighbor call
+    public long lastDistance() {
+        return bestDist;
+    }
+
+    private void search(int lo, int hi) {
+        if(lo >= hi)
+            return;
+
+        int mid = (lo + hi) >>> 1;
+        if(maxId[mid] <= queryId)
+            return;
+
+        // closest and farthest the box can be from the query point
+        long near = 0, far = 0;
+        for(int d=0; d<dimensions; d++) {
+            long q = queryCoord[d], min = boxMin[d][mid], max = boxMax[d][mid];
+            long gap = q < min ? min - q : (q > max ? q - max : 0);
+            long reach = Math.max(Math.abs(q - min), Math.abs(q - max));
+            near += gap * gap;
+            far += reach * reach;
+        }
+        if(near > bestDist || far < floorDist)
+            return;
+
+        int id = order[mid];
+        if(id > queryId) {
+            long dist = points.distanceSq(queryId, id);
+            boolean afterFloor = dist > floorDist || (dist == floorDist && id > floorId);
+            boolean beforeBest = dist < bestDist || (dist == bestDist && id < bestId);
+            if(afterFloor && beforeBest) {
+                bestDist = dist;
+                bestId = id;
+            }
+        }
+
+        // visit the side the query point is on first, it usually tightens bestDist the most
+        int a = axis[mid];
+        if(queryCoord[a] < coords[a][id]) {
+            search(lo, mid);
+            search(mid + 1, hi);
+        } else {
+            search(mid + 1, hi);
+            search(lo, mid);
+        }
+    }
+
+    public PairIterator pairs() {
+        return new PairIterator();
+    }
+
+    // Every unordered pair exactly once, in increasing (distance, first, second) order. Keeps one pending
+    // pair per point in a binary heap, so the first k pairs cost O(n log n + k log n) tree queries.
+    public class PairIterator implements PairCursor {
+        private final int[] heap;
+        private final long[] pendingDist;
+        private final int[] pendingId;
+        private int heapSize = 0;
+
+        private int first = -1;
+        private int second = -1;
+        private long distance = -1;
+
+        private PairIterator() {
+            int n = order.length;
+            heap = new int[n];
+            pendingDist = new long[n];
+            pendingId = new int[n];
+
+            for(int i=0; i<n; i++) {
+                int j = nextNeighbor(i, -1, -1);
+                if(j != -1) {
+                    pendingDist[i] = bestDist;
+                    pendingId[i] = j;
+                    heap[heapSize++] = i;
+                }
+            }
+            for(int k=heapSize/2 - 1; k>=0; k--)
+                siftDown(k);
+        }
+
+        @Override
+        public boolean next() {
+            if(heapSize == 0)
+                return false;
+
+            int i = heap[0];
+            first = i;
+            second = pendingId[i];
+            distance = pendingDist[i];
+
+            int j = nextNeighbor(i, distance, second);
+            if(j != -1) {
+                pendingDist[i] = bestDist;
+                pendingId[i] = j;
+            } else {
+                heap[0] = heap[--heapSize];
+            }
+            siftDown(0);
+
+            return true;
+        }
+
+        @Override
+        public int first() {
+            return first;
+        }
+
+        @Override
+        public int second() {
+            return second;
+        }
+
+        @Override
+        public long distance() {
+            return distance;
+        }
+
+        private boolean less(int a, int b) {
+            if(pendingDist[a] != pendingDist[b])
+                return pendingDist[a] < pendingDist[b];
+            if(a != b)
+                return a < b;
+            return pendingId[a] < pendingId[b];
+        }
+
+        private void siftDown(int k) {
+            while(true) {
+                int smallest = k, left = 2*k + 1, right = left + 1;
+                if(left < heapSize && less(heap[left], heap[smallest]))
+                    smallest = left;
+                if(right < heapSize && less(heap[right], heap[smallest]))
+                    smallest = right;
+                if(smallest == k)
+                    return;
+
+                int temp = heap[k];
+                heap[k] = heap[smallest];
+                heap[smallest] = temp;
+                k = smallest;
+            }
+        }
+    }
+}
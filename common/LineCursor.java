@@ -0,0 +1,97 @@
+package common;
+
+import java.nio.charset.StandardCharsets;
+
+// MappedInput's field cursor over a single line held in a byte[], for lines handed out by a LineStream.
+// One cursor is meant to be reset for every line rather than allocated per line.
+public class LineCursor {
+    private byte[] line;
+    private int start;
+    private int pos;
+    private int end;
+
+    public LineCursor reset(byte[] line, int from, int to) {
+        this.line = line;
+        this.start = from;
+        this.pos = from;
+        this.end = to;
+        return this;
+    }
+
+    public boolean isLineEnd() {
+        return pos >= end;
+    }
+
+    public boolean isBlankLine() {
+        return pos >= end;
+    }
+
+    // the array usually holds more lines after this one, so reading past the end is an error rather than
+    // a look at the next line
+    public byte peek() {
+        if (pos >= end)
+            throw new IllegalStateException("Line ended at index " + pos);
+        return line[pos];
+    }
+
+    public byte next() {
+        byte b = peek();
+        pos++;
+        return b;
+    }
+
+    // the whole line, for error messages
+    public String lineString() {
+        return new String(line, start, end - start, StandardCharsets.US_ASCII);
+    }
+
+    // skips separators, returns true if a number follows before the line ends
+    public boolean hasNextField() {
+        while (pos < end) {
+            byte b = line[pos];
+            if (isDigit(b) || b == '-' && pos + 1 < end && isDigit(line[pos + 1]))
+                return true;
+            pos++;
+        }
+        return false;
+    }
+
+    // parses the next (optionally negative) number on the line
+    public long nextLong() {
+        if (!hasNextField())
+            throw new IllegalStateException("No number left on line at index " + pos);
+
+        boolean negative = false;
+        if (line[pos] == '-') {
+            negative = true;
+            pos++;
+        }
+
+        long value = 0;
+        while (pos < end && isDigit(line[pos]))
+            value = value * 10 + (line[pos++] - '0');
+
+        return negative ? -value : value;
+    }
+
+    // same as nextLong but treats '-' as a separator, for things like "3-5" ranges
+    public long nextUnsignedLong() {
+        while (pos < end && !isDigit(line[pos]))
+            pos++;
+        if (pos >= end)
+            throw new IllegalStateException("No number left on line at index " + pos);
+
+        long value = 0;
+        while (pos < end && isDigit(line[pos]))
+            value = value * 10 + (line[pos++] - '0');
+        return value;
+    }
+
+    public int nextInt() {
+        return Math.toIntExact(nextLong());
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+}
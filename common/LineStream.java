@@ -0,0 +1,160 @@
+package common;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+
+// Input lines pushed through a fixed set of byte blocks, for inputs that are bigger than the heap or that
+// can only be read once (stdin, a named pipe). A reader thread fills free blocks with whole lines and
+// queues them, the consumer walks the lines of a block in place and hands it back. When the consumer falls
+// behind the reader runs out of free blocks and waits, so memory stays at BLOCKS blocks of BLOCK_SIZE,
+// only growing a block when a single line does not fit in it.
+public class LineStream implements AutoCloseable {
+    private static final int BLOCK_SIZE = Integer.getInteger("stream.block", 1 << 16);
+    // the reader holds one block while it takes the next, so it needs at least two
+    private static final int BLOCKS = Math.max(2, Integer.getInteger("stream.blocks", 8));
+
+    public interface LineConsumer {
+        // one line, line[from, to) without the line break. The line can be modified in place, the array is
+        // reused once this returns
+        void accept(byte[] line, int from, int to);
+    }
+
+    private static class Block {
+        byte[] bytes;
+        int length;
+
+        Block(int size) {
+            bytes = new byte[size];
+        }
+    }
+
+    // queued after the last block, or after a read error
+    private static final Block END = new Block(0);
+
+    private final InputStream in;
+    private final ArrayBlockingQueue<Block> free = new ArrayBlockingQueue<>(BLOCKS);
+    private final ArrayBlockingQueue<Block> full = new ArrayBlockingQueue<>(BLOCKS + 1);
+    private final Thread reader;
+
+    private volatile IOException error;
+    private volatile long bytesRead;
+
+    private LineStream(InputStream in) {
+        this.in = in;
+        for(int i=0; i<BLOCKS; i++)
+            free.add(new Block(BLOCK_SIZE));
+
+        reader = new Thread(this::read, "line-stream");
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    // "-" is stdin, anything else a path, which can also be a named pipe
+    public static LineStream open(String source) throws IOException {
+        if(source.equals("-"))
+            return new LineStream(System.in);
+        return new LineStream(Files.newInputStream(Paths.get(source)));
+    }
+
+    public long bytesRead() {
+        return bytesRead;
+    }
+
+    // hands every line to consumer in order, returns once the input is exhausted
+    public void forEach(LineConsumer consumer) throws IOException {
+        try {
+            while(true) {
+                Block block = full.take();
+                if(block == END)
+                    break;
+
+                byte[] bytes = block.bytes;
+                int from = 0;
+                for(int i=0; i<block.length; i++) {
+                    if(bytes[i] != '\n')
+                        continue;
+                    int to = i > from && bytes[i - 1] == '\r' ? i - 1 : i;
+                    consumer.accept(bytes, from, to);
+                    from = i + 1;
+                }
+                // only the very last block can end without a line break
+                if(from < block.length) {
+                    int to = bytes[block.length - 1] == '\r' ? block.length - 1 : block.length;
+                    consumer.accept(bytes, from, to);
+                }
+
+                free.put(block);
+            }
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for input");
+        }
+
+        if(error != null)
+            throw error;
+    }
+
+    // fills blocks up to their last line break and carries the partial line over to the next block
+    private void read() {
+        try {
+            Block block = free.take();
+            int filled = 0;
+            while(true) {
+                if(filled == block.bytes.length)
+                    block.bytes = Arrays.copyOf(block.bytes, block.bytes.length * 2);
+
+                int n = in.read(block.bytes, filled, block.bytes.length - filled);
+                if(n < 0) {
+                    if(filled > 0) {
+                        block.length = filled;
+                        full.put(block);
+                    }
+                    break;
+                }
+                bytesRead += n;
+
+                int start = filled;
+                filled += n;
+                int last = filled - 1;
+                while(last >= start && block.bytes[last] != '\n')
+                    last--;
+                if(last < start)
+                    continue;
+
+                Block next = free.take();
+                int carry = filled - last - 1;
+                if(next.bytes.length < carry * 2)
+                    next.bytes = new byte[Math.max(carry * 2, BLOCK_SIZE)];
+                System.arraycopy(block.bytes, last + 1, next.bytes, 0, carry);
+
+                block.length = last + 1;
+                full.put(block);
+                block = next;
+                filled = carry;
+            }
+        } catch(IOException e) {
+            error = e;
+        } catch(InterruptedException e) {
+            // closed by the consumer
+            return;
+        }
+
+        try {
+            full.put(END);
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.interrupt();
+        if(in != System.in)
+            in.close();
+    }
+}
@@ -0,0 +1,242 @@
+package common;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+public class MappedInput {
+    // a single MappedByteBuffer is capped at 2GB, so big files are mapped in 1GB segments
+    private static final int SEGMENT_SHIFT = 30;
+    private static final long SEGMENT_SIZE = 1L << SEGMENT_SHIFT;
+    private static final long SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+    private final MappedByteBuffer[] segments;
+    private final long size;
+
+    // cursor, always points at the next unread byte
+    private long pos = 0;
+
+    private MappedInput(MappedByteBuffer[] segments, long size) {
+        this.segments = segments;
+        this.size = size;
+    }
+
+    public static MappedInput open() throws IOException {
+        return open(utils.INPUT_FILENAME);
+    }
+
+    public static MappedInput open(String filename) throws IOException {
+        return open(Paths.get(filename));
+    }
+
+    public static MappedInput open(Path path) throws IOException {
+        // the mapping stays valid after the channel is closed
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            int count = (int) ((size + SEGMENT_SIZE - 1) >>> SEGMENT_SHIFT);
+
+            MappedByteBuffer[] segments = new MappedByteBuffer[count];
+            for (int i = 0; i < count; i++) {
+                long start = (long) i << SEGMENT_SHIFT;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(SEGMENT_SIZE, size - start));
+            }
+
+            return new MappedInput(segments, size);
+        }
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public long position() {
+        return pos;
+    }
+
+    public void seek(long pos) {
+        this.pos = pos;
+    }
+
+    public void rewind() {
+        pos = 0;
+    }
+
+    public byte byteAt(long i) {
+        return segments[(int) (i >>> SEGMENT_SHIFT)].get((int) (i & SEGMENT_MASK));
+    }
+
+    // bulk copy of [from, from+len) into dst, used when a caller wants a whole line as a byte[]
+    public void copy(long from, byte[] dst, int offset, int len) {
+        while (len > 0) {
+            MappedByteBuffer segment = segments[(int) (from >>> SEGMENT_SHIFT)];
+            int index = (int) (from & SEGMENT_MASK);
+            int chunk = Math.min(len, segment.limit() - index);
+
+            segment.get(index, dst, offset, chunk);
+            from += chunk;
+            offset += chunk;
+            len -= chunk;
+        }
+    }
+
+    public boolean hasMore() {
+        return pos < size;
+    }
+
+    public byte peek() {
+        return byteAt(pos);
+    }
+
+    public byte next() {
+        return byteAt(pos++);
+    }
+
+    // ---------------- line cursor ----------------
+
+    public boolean isLineEnd() {
+        return pos >= size || isNewline(byteAt(pos));
+    }
+
+    // moves the cursor to the start of the next line, returns false if there is none
+    public boolean nextLine() {
+        while (pos < size && byteAt(pos) != '\n')
+            pos++;
+        if (pos < size)
+            pos++;
+        return pos < size;
+    }
+
+    // end of the current line (exclusive), without the trailing \r if any
+    public long lineEnd() {
+        long end = pos;
+        while (end < size && byteAt(end) != '\n')
+            end++;
+        if (end > pos && byteAt(end - 1) == '\r')
+            end--;
+        return end;
+    }
+
+    public boolean isBlankLine() {
+        return isLineEnd();
+    }
+
+    // start offset of every line, plus size() as a sentinel at the end
+    public long[] lineOffsets() {
+        long[] offsets = new long[1024];
+        int count = 0;
+
+        long i = 0;
+        while (i < size) {
+            if (count == offsets.length - 1)
+                offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            offsets[count++] = i;
+
+            while (i < size && byteAt(i) != '\n')
+                i++;
+            i++;
+        }
+        offsets[count++] = size;
+
+        return Arrays.copyOf(offsets, count);
+    }
+
+    // fallback for days that still work on strings
+    public ArrayList<String> lines() {
+        ArrayList<String> lines = new ArrayList<>();
+        long saved = pos;
+
+        pos = 0;
+        while (pos < size) {
+            lines.add(lineString());
+            if (!nextLine())
+                break;
+        }
+
+        pos = saved;
+        return lines;
+    }
+
+    public String lineString() {
+        long end = lineEnd();
+        byte[] bytes = new byte[(int) (end - pos)];
+        copy(pos, bytes, 0, bytes.length);
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+
+    // ---------------- field cursor ----------------
+
+    // skips separators on the current line, returns true if a number follows before the line ends
+    public boolean hasNextField() {
+        while (pos < size) {
+            byte b = byteAt(pos);
+            if (isDigit(b) || b == '-' && pos + 1 < size && isDigit(byteAt(pos + 1)))
+                return true;
+            if (isNewline(b))
+                return false;
+            pos++;
+        }
+        return false;
+    }
+
+    // parses the next (optionally negative) number on the current line
+    public long nextLong() {
+        if (!hasNextField())
+            throw new IllegalStateException("No number left on line at offset " + pos);
+
+        boolean negative = false;
+        if (byteAt(pos) == '-') {
+            negative = true;
+            pos++;
+        }
+
+        long value = 0;
+        while (pos < size) {
+            byte b = byteAt(pos);
+            if (!isDigit(b))
+                break;
+            value = value * 10 + (b - '0');
+            pos++;
+        }
+
+        return negative ? -value : value;
+    }
+
+    // same as nextLong but treats '-' as a separator, for things like "3-5" ranges
+    public long nextUnsignedLong() {
+        while (pos < size && !isDigit(byteAt(pos))) {
+            if (isNewline(byteAt(pos)))
+                throw new IllegalStateException("No number left on line at offset " + pos);
+            pos++;
+        }
+        if (pos >= size)
+            throw new IllegalStateException("No number left on line at offset " + pos);
+
+        long value = 0;
+        while (pos < size) {
+            byte b = byteAt(pos);
+            if (!isDigit(b))
+                break;
+            value = value * 10 + (b - '0');
+            pos++;
+        }
+        return value;
+    }
+
+    public int nextInt() {
+        return Math.toIntExact(nextLong());
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+
+    private static boolean isNewline(byte b) {
+        return b == '\n' || b == '\r';
+    }
+}
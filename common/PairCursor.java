@@ -0,0 +1,13 @@
+package common;
+
+// pairs of point ids handed out in increasing distance, see KdTree.PairIterator
+public interface PairCursor {
+    // moves to the next pair, false once every pair has been seen
+    boolean next();
+
+    int first();
+
+    int second();
+
+    long distance();
+}
@@ -18,14 +18,17 @@ public class Point {
     }
 
     public long distance(Point a) {
-        return (this.x - a.x) * (this.x - a.x) + (this.y - a.y) * (this.y - a.y) + (this.z - a.z) * (this.z - a.z);
+        long dx = (long) this.x - a.x;
+        long dy = (long) this.y - a.y;
+        long dz = (long) this.z - a.z;
+        return Math.addExact(Math.addExact(Math.multiplyExact(dx, dx), Math.multiplyExact(dy, dy)), Math.multiplyExact(dz, dz));
     }
     
     public long findHorizontalRelative(Point a){
-        return Math.abs(this.x - a.x)+1;
+        return Math.abs((long) this.x - a.x)+1;
     }
     public long findVerticalRelative(Point a){
-        return Math.abs(this.y - a.y)+1;
+        return Math.abs((long) this.y - a.y)+1;
     }
     
     public String toString() {
@@ -0,0 +1,123 @@
+package common;
+
+import java.util.Arrays;
+
+// Struct-of-arrays alternative to ArrayList<Point> for the O(n^2) loops: coordinates sit in
+// plain int[]s so a pass over j is a sequential scan with no object headers or pointer chasing.
+public class PointCloud {
+    // Squared distances are exact for coordinates within +-2^29: any difference is at most 2^30 and three
+    // squared differences sum to at most 3 * 2^60 < 2^62. Only the distance users need that, so they check
+    // it once with checkDistanceRange() instead of the hot loops checking every multiplication
+    public static final int MAX_DISTANCE_COORDINATE = 1 << 29;
+
+    private final int dimensions;
+    private int[] x;
+    private int[] y;
+    private int[] z;
+    private int size = 0;
+
+    public PointCloud(int dimensions) {
+        this(dimensions, 16);
+    }
+
+    public PointCloud(int dimensions, int capacity) {
+        if(dimensions != 2 && dimensions != 3)
+            throw new IllegalArgumentException("Only 2D and 3D points are supported, got " + dimensions);
+
+        this.dimensions = dimensions;
+        capacity = Math.max(capacity, 1);
+        x = new int[capacity];
+        y = new int[capacity];
+        z = new int[capacity];
+    }
+
+    // one point per line, coordinates separated by anything that is not a digit ("x,y" or "x,y,z")
+    public static PointCloud load(MappedInput input, int dimensions) {
+        PointCloud cloud = new PointCloud(dimensions, 1024);
+        do {
+            if(input.isBlankLine())
+                continue;
+            int px = input.nextInt();
+            int py = input.nextInt();
+            int pz = dimensions == 3 ? input.nextInt() : 0;
+            cloud.add(px, py, pz);
+        } while(input.nextLine());
+
+        return cloud;
+    }
+
+    public void add(int px, int py) {
+        add(px, py, 0);
+    }
+
+    public void add(int px, int py, int pz) {
+        if(size == x.length) {
+            int capacity = size * 2;
+            x = Arrays.copyOf(x, capacity);
+            y = Arrays.copyOf(y, capacity);
+            z = Arrays.copyOf(z, capacity);
+        }
+        x[size] = px;
+        y[size] = py;
+        z[size] = pz;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int dimensions() {
+        return dimensions;
+    }
+
+    public int x(int i) {
+        return x[i];
+    }
+
+    public int y(int i) {
+        return y[i];
+    }
+
+    public int z(int i) {
+        return z[i];
+    }
+
+    // backing arrays for tight loops, only the first size() entries are valid
+    public int[] xs() {
+        return x;
+    }
+
+    public int[] ys() {
+        return y;
+    }
+
+    public int[] zs() {
+        return z;
+    }
+
+    // throws unless distanceSq is exact for every pair, see MAX_DISTANCE_COORDINATE
+    public void checkDistanceRange() {
+        for(int i=0; i<size; i++) {
+            if(!inDistanceRange(x[i]) || !inDistanceRange(y[i]) || !inDistanceRange(z[i]))
+                throw new IllegalArgumentException("Point " + get(i) + " is outside +-" + MAX_DISTANCE_COORDINATE
+                    + ", squared distances would overflow");
+        }
+    }
+
+    private static boolean inDistanceRange(int coordinate) {
+        return coordinate >= -MAX_DISTANCE_COORDINATE && coordinate <= MAX_DISTANCE_COORDINATE;
+    }
+
+    // squared euclidean distance, exact once checkDistanceRange() has passed
+    public long distanceSq(int i, int j) {
+        long dx = (long) x[i] - x[j];
+        long dy = (long) y[i] - y[j];
+        long dz = (long) z[i] - z[j];
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    public Point get(int i) {
+        return dimensions == 3 ? new Point(x[i], y[i], z[i]) : new Point(x[i], y[i]);
+    }
+}
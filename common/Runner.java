@@ -0,0 +1,222 @@
+package common;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+public class Runner {
+    // kept as class names so common/ does not depend on the days
+    private static final String[] DAYS = {
+        null,
+        "day1.SecretEntrance",
+        "day2.GiftShop",
+        "day3.Lobby",
+        "day4.PrintingDepartment",
+        "day5.Cafeteria",
+        "day6.TrashCompactor",
+        "day7.Laboratories",
+        "day8.Playground",
+        "day9.MovieTheater",
+        "day10.Factory",
+        "day11.Reactor"
+    };
+
+    public static class Stats {
+        public final long answer;
+        // every part, from Solver.answers
+        public final List<String> answers;
+        public final long inputBytes;
+        public final long[] parseNanos;
+        public final long[] solveNanos;
+        public final long[] totalNanos;
+
+        Stats(long answer, List<String> answers, long inputBytes, long[] parseNanos, long[] solveNanos) {
+            this.answer = answer;
+            this.answers = List.copyOf(answers);
+            this.inputBytes = inputBytes;
+            this.parseNanos = parseNanos.clone();
+            this.solveNanos = solveNanos.clone();
+            this.totalNanos = new long[parseNanos.length];
+            for(int i=0; i<parseNanos.length; i++)
+                totalNanos[i] = parseNanos[i] + solveNanos[i];
+
+            Arrays.sort(this.parseNanos);
+            Arrays.sort(this.solveNanos);
+            Arrays.sort(this.totalNanos);
+        }
+
+        public int iterations() {
+            return totalNanos.length;
+        }
+
+        // runs per second, based on the median run
+        public double throughput() {
+            return 1e9 / Math.max(1, percentile(totalNanos, 0.5));
+        }
+
+        public double megabytesPerSecond() {
+            return inputBytes / 1e6 * throughput();
+        }
+
+        public void print(PrintStream out) {
+            out.println("\n---------------------------------");
+            out.printf("%-20s : %d%n", "Iterations", iterations());
+            out.printf("%-20s : %12s %12s %12s%n", "", "min", "median", "p99");
+            printRow(out, "Parse time", parseNanos);
+            printRow(out, "Solve time", solveNanos);
+            printRow(out, "Total time", totalNanos);
+            out.printf(Locale.ROOT, "%-20s : %.2f runs/s, %.2f MB/s%n", "Throughput", throughput(), megabytesPerSecond());
+            out.println("---------------------------------");
+        }
+
+        private static void printRow(PrintStream out, String name, long[] sorted) {
+            out.printf(Locale.ROOT, "%-20s : %9.3f ms %9.3f ms %9.3f ms%n", name,
+                sorted[0] / 1e6, percentile(sorted, 0.5) / 1e6, percentile(sorted, 0.99) / 1e6);
+        }
+
+        public String toJson() {
+            return String.format(Locale.ROOT,
+                "{\"answer\":%d,\"answers\":[%s],\"iterations\":%d,\"inputBytes\":%d,\"parse\":%s,\"solve\":%s,\"total\":%s,\"runsPerSecond\":%.3f}",
+                answer, answers.stream().map(a -> "\"" + a + "\"").collect(Collectors.joining(",")), iterations(), inputBytes, jsonRow(parseNanos), jsonRow(solveNanos), jsonRow(totalNanos), throughput());
+        }
+
+        private static String jsonRow(long[] sorted) {
+            return String.format("{\"minNanos\":%d,\"medianNanos\":%d,\"p99Nanos\":%d}",
+                sorted[0], percentile(sorted, 0.5), percentile(sorted, 0.99));
+        }
+    }
+
+    // nearest-rank percentile over an already sorted array
+    public static long percentile(long[] sorted, double p) {
+        int rank = (int) Math.ceil(p * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+    }
+
+    public static <T> Stats measure(Solver<T> solver, MappedInput input, int warmup, int iterations) {
+        for(int i=0; i<warmup; i++) {
+            input.rewind();
+            solver.solve(solver.parse(input));
+        }
+
+        long answer = 0;
+        long[] parseNanos = new long[iterations];
+        long[] solveNanos = new long[iterations];
+        for(int i=0; i<iterations; i++) {
+            input.rewind();
+            long startTime = System.nanoTime();
+            T parsed = solver.parse(input);
+            long processStartTime = System.nanoTime();
+            answer = solver.solve(parsed);
+            long endTime = System.nanoTime();
+
+            parseNanos[i] = processStartTime - startTime;
+            solveNanos[i] = endTime - processStartTime;
+        }
+
+        return new Stats(answer, solver.answers(answer), input.size(), parseNanos, solveNanos);
+    }
+
+    // every run reads the source again, so stdin can only be measured once. There is no separate parse step,
+    // the whole pass counts as solve time
+    public static Stats measureStream(StreamingSolver solver, String source, int warmup, int iterations) throws IOException {
+        if(source.equals("-") && warmup + iterations > 1)
+            throw new IllegalArgumentException("stdin can only be streamed once");
+
+        for(int i=0; i<warmup; i++)
+            utils.streamInputAndSolve(solver, source);
+
+        long answer = 0, bytes = 0;
+        List<String> answers = List.of();
+        long[] parseNanos = new long[iterations];
+        long[] solveNanos = new long[iterations];
+        for(int i=0; i<iterations; i++) {
+            long startTime = System.nanoTime();
+            try (LineStream lines = LineStream.open(source)) {
+                StreamingSolver.Sink sink = solver.open();
+                lines.forEach(sink);
+                answer = sink.finish();
+                answers = sink.answers(answer);
+                bytes = lines.bytesRead();
+            }
+            solveNanos[i] = System.nanoTime() - startTime;
+        }
+
+        return new Stats(answer, answers, bytes, parseNanos, solveNanos);
+    }
+
+    // entry point shared by every day's main: [-n iterations] [-w warmup] [--json] [--stream <path | ->]
+    public static <T> long run(Solver<T> solver, PrintStream out, String[] args) throws IOException {
+        return runStats(solver, out, args).answer;
+    }
+
+    // same as run, with every answer and the timings
+    public static <T> Stats runStats(Solver<T> solver, PrintStream out, String[] args) throws IOException {
+        int iterations = 1, warmup = 0;
+        boolean json = false;
+        String stream = null;
+
+        for(int i=0; i<args.length; i++) {
+            switch(args[i]) {
+                case "-n" -> iterations = Integer.parseInt(args[++i]);
+                case "-w" -> warmup = Integer.parseInt(args[++i]);
+                case "--json" -> json = true;
+                case "--stream" -> stream = args[++i];
+                default -> throw new IllegalArgumentException("Unknown option : " + args[i]);
+            }
+        }
+        if(iterations < 1)
+            throw new IllegalArgumentException("Need at least one iteration");
+
+        Stats stats;
+        if(stream == null) {
+            stats = measure(solver, MappedInput.open(), warmup, iterations);
+        } else if(solver instanceof StreamingSolver streaming) {
+            stats = measureStream(streaming, stream, warmup, iterations);
+        } else {
+            throw new IllegalArgumentException(solver.getClass().getSimpleName() + " cannot read a stream");
+        }
+        Trace.flush();
+
+        if(Trace.dropped() > 0)
+            out.printf("Trace messages dropped : %d\n", Trace.dropped());
+        stats.print(out);
+        if(json)
+            System.out.println(stats.toJson());
+
+        return stats;
+    }
+
+    public static Solver<?> load(String day) throws ReflectiveOperationException {
+        String className = day;
+        if(day.chars().allMatch(Character::isDigit)) {
+            int index = Integer.parseInt(day);
+            if(index <= 0 || index >= DAYS.length)
+                throw new IllegalArgumentException("No such day : " + day);
+            className = DAYS[index];
+        }
+
+        return (Solver<?>) Class.forName(className).getDeclaredConstructor().newInstance();
+    }
+
+    // java common.Runner <day number | class name> [-n iterations] [-w warmup] [--json] [--stream <path | ->]
+    public static void main(String[] args) {
+        if(args.length == 0) {
+            System.out.println("Usage : Runner <day> [-n iterations] [-w warmup] [--json] [--stream <path | ->]");
+            return;
+        }
+
+        try {
+            Solver<?> solver = load(args[0]);
+            List<String> answers = runStats(solver, System.out, Arrays.copyOfRange(args, 1, args.length)).answers;
+            System.out.println("Answer : " + answers.getFirst());
+            for(int i=1; i<answers.size(); i++)
+                System.out.println("Answer Part " + (i + 1) + " : " + answers.get(i));
+        } catch (Exception e) {
+            System.out.println("Exception : " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package common;
+
+import java.io.PrintStream;
+import java.util.List;
+
+public interface Solver<T> {
+    // turn the raw input into whatever the day works on, timed separately from solve()
+    T parse(MappedInput input);
+
+    // where the day writes its answers and debug output, output.txt unless BatchRunner gives it a job's file
+    void setOutput(PrintStream out);
+
+    // may modify the parsed input, the runner parses again before every run
+    long solve(T input);
+
+    // every answer of the last solve(), part 1 first. Given as text so an answer that does not fit in the
+    // long solve() returns can still be reported
+    default List<String> answers(long solved) {
+        return List.of(Long.toString(solved));
+    }
+}
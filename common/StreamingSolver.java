@@ -0,0 +1,20 @@
+package common;
+
+import java.util.List;
+
+// Days whose answer is a fold over their lines can also take the input as a stream, see LineStream, and
+// run in constant memory on inputs that do not fit in the heap or come from stdin or a pipe.
+public interface StreamingSolver {
+    // a fresh fold for one pass over the input, fed the lines in order
+    Sink open();
+
+    interface Sink extends LineStream.LineConsumer {
+        // called once after the last line
+        long finish();
+
+        // every answer of the pass, part 1 first, same as Solver.answers
+        default List<String> answers(long finished) {
+            return List.of(Long.toString(finished));
+        }
+    }
+}
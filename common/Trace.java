@@ -0,0 +1,155 @@
+package common;
+
+import java.io.PrintStream;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+// Usage in hot loops:
+//     if(Trace.TRACE) Trace.printf(out, "Invalid Num : %d\n", i);
+// The flags are static finals read once from -Dtrace=off|info|debug|trace, so when a level is off the JIT
+// folds the check to false and drops the whole call, varargs array and boxing included.
+// -Dtrace.async=true hands the messages to a background thread through a ring buffer instead of formatting
+// them on the solver thread, -Dtrace.buffer sets its size (rounded up to a power of 2).
+public class Trace {
+    private static final int LEVEL = parseLevel(System.getProperty("trace", "off"));
+
+    public static final boolean INFO = LEVEL >= 1;
+    public static final boolean DEBUG = LEVEL >= 2;
+    public static final boolean TRACE = LEVEL >= 3;
+
+    private static final RingBuffer ASYNC = LEVEL > 0 && Boolean.getBoolean("trace.async")
+        ? RingBuffer.start(Integer.getInteger("trace.buffer", 1 << 16))
+        : null;
+
+    private static int parseLevel(String level) {
+        return switch(level.toLowerCase(Locale.ROOT)) {
+            case "off" -> 0;
+            case "info" -> 1;
+            case "debug" -> 2;
+            case "trace" -> 3;
+            default -> throw new IllegalArgumentException("Unknown trace level : " + level);
+        };
+    }
+
+    public static void printf(PrintStream out, String format, Object... args) {
+        if(ASYNC != null)
+            ASYNC.offer(out, format, args);
+        else
+            out.printf(format, args);
+    }
+
+    public static void println(PrintStream out, String line) {
+        printf(out, "%s%n", line);
+    }
+
+    // number of messages lost because the async buffer was full
+    public static long dropped() {
+        return ASYNC == null ? 0 : ASYNC.dropped.get();
+    }
+
+    // blocks until everything queued so far has been written
+    public static void flush() {
+        if(ASYNC != null)
+            ASYNC.drain();
+    }
+
+    // bounded multi-producer / single-consumer ring, producers never block: when it is full the message is dropped
+    private static class RingBuffer implements Runnable {
+        private final int mask;
+        // sequence[i] == pos means slot i is free for the producer claiming pos,
+        // sequence[i] == pos + 1 means it holds the message published at pos
+        private final AtomicLongArray sequence;
+        private final PrintStream[] streams;
+        private final String[] formats;
+        private final Object[][] args;
+
+        private final AtomicLong tail = new AtomicLong();
+        private final AtomicLong dropped = new AtomicLong();
+        private volatile long head = 0;
+
+        private RingBuffer(int capacity) {
+            int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+            mask = size - 1;
+            sequence = new AtomicLongArray(size);
+            for(int i=0; i<size; i++)
+                sequence.set(i, i);
+            streams = new PrintStream[size];
+            formats = new String[size];
+            args = new Object[size][];
+        }
+
+        static RingBuffer start(int capacity) {
+            RingBuffer buffer = new RingBuffer(capacity);
+
+            Thread writer = new Thread(buffer, "trace-writer");
+            writer.setDaemon(true);
+            writer.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(buffer::drain));
+
+            return buffer;
+        }
+
+        void offer(PrintStream out, String format, Object[] arguments) {
+            long pos = tail.get();
+            int index;
+            while(true) {
+                index = (int) (pos & mask);
+                long diff = sequence.get(index) - pos;
+                if(diff == 0) {
+                    if(tail.compareAndSet(pos, pos + 1))
+                        break;
+                    pos = tail.get();
+                } else if(diff < 0) {
+                    // the writer has not freed this slot yet, i.e. the buffer is full
+                    dropped.incrementAndGet();
+                    return;
+                } else {
+                    pos = tail.get();
+                }
+            }
+
+            streams[index] = out;
+            formats[index] = format;
+            args[index] = arguments;
+            sequence.set(index, pos + 1);
+        }
+
+        // writes one message if there is one ready, only ever called by one thread at a time
+        private synchronized boolean poll() {
+            long pos = head;
+            int index = (int) (pos & mask);
+            if(sequence.get(index) != pos + 1)
+                return false;
+
+            PrintStream out = streams[index];
+            String format = formats[index];
+            Object[] arguments = args[index];
+            streams[index] = null;
+            formats[index] = null;
+            args[index] = null;
+            sequence.set(index, pos + mask + 1);
+            head = pos + 1;
+
+            out.printf(format, arguments);
+            return true;
+        }
+
+        void drain() {
+            long target = tail.get();
+            while(head < target) {
+                if(!poll())
+                    Thread.onSpinWait();
+            }
+        }
+
+        @Override
+        public void run() {
+            while(true) {
+                if(!poll())
+                    LockSupport.parkNanos(50_000);
+            }
+        }
+    }
+}
@@ -3,6 +3,7 @@ package common;
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.PrintStream;
 import java.nio.file.Files;
 import java.nio.file.Paths;
@@ -25,13 +26,41 @@ public class utils {
 
     private static PrintStream debugStream = null;
 
-    public static PrintStream initializeOutputStream() {
-        try {
-            return new PrintStream(Files.newOutputStream(Paths.get(OUTPUT_FILENAME)));
-        } catch (Exception e) {
-            System.out.println("Error while initializing output stream : " + e);
-            return null;
+    // Every day's static out starts as this stream, which opens output.txt on its first write, so loading a
+    // day (BatchRunner gives each job its own stream through Solver.setOutput) leaves no empty file behind
+    private static PrintStream defaultOutput = null;
+
+    private static final PrintStream DEFAULT_OUTPUT = new PrintStream(new OutputStream() {
+        @Override
+        public void write(int b) {
+            defaultOutput().write(b);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) {
+            defaultOutput().write(bytes, offset, length);
+        }
+
+        @Override
+        public void flush() {
+            defaultOutput().flush();
+        }
+    });
+
+    private static synchronized PrintStream defaultOutput() {
+        if (defaultOutput == null) {
+            try {
+                defaultOutput = new PrintStream(Files.newOutputStream(Paths.get(OUTPUT_FILENAME)));
+            } catch (Exception e) {
+                System.out.println("Error while initializing output stream : " + e);
+                defaultOutput = new PrintStream(OutputStream.nullOutputStream());
+            }
         }
+        return defaultOutput;
+    }
+
+    public static PrintStream initializeOutputStream() {
+        return DEFAULT_OUTPUT;
     }
 
     public static BufferedReader initilaizeReader() throws IOException {
@@ -82,4 +111,18 @@ public class utils {
         ArrayList<String> lines = getInputLines();
         return processor.apply(lines);
     }
+
+    // constant memory alternative to readInputAndSolve, source is a path, a named pipe or "-" for stdin
+    public static long streamInputAndSolve(StreamingSolver solver, String source) throws IOException {
+        try (LineStream lines = LineStream.open(source)) {
+            StreamingSolver.Sink sink = solver.open();
+            lines.forEach(sink);
+            return sink.finish();
+        }
+    }
+
+    public static <T> T readMappedInputAndSolve(Function<MappedInput, T> processor) throws IOException {
+        MappedInput input = MappedInput.open();
+        return processor.apply(input);
+    }
 }
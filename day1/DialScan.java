@@ -0,0 +1,138 @@
+package day1;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import common.MappedInput;
+
+// The rotation log cut into chunks of about CHUNK_BYTES at line boundaries, each read straight from the
+// mapped bytes into its transfer function: where every one of the 100 starting positions ends up, and how
+// many times it passes 0 on the way. Transfer functions compose associatively, so the chunks are built in
+// parallel and combined with a tree reduction, and the whole log never has to be held in memory.
+// Within a chunk every starting position moves by the same amount, so a rotation hits 0 for a contiguous
+// (cyclic) range of starting positions. The ranges go into a difference array, which makes a chunk cost one
+// pass over its bytes plus 100 steps, not 100 walks.
+public class DialScan implements RotationLog {
+    private static final int POSITIONS = 100;
+    private static final int CHUNK_BYTES = 1 << 20;
+
+    // chunks are copied out of the mapping in bulk, the bytes of a chunk only ever go past one thread
+    private static final ThreadLocal<byte[]> BUFFER = ThreadLocal.withInitial(() -> new byte[2 * CHUNK_BYTES]);
+
+    private final MappedInput input;
+    // chunk i is bytes [bounds[i], bounds[i+1]), every chunk but the last ends right after a newline
+    private final long[] bounds;
+
+    private DialScan(MappedInput input, long[] bounds) {
+        this.input = input;
+        this.bounds = bounds;
+    }
+
+    public static DialScan parse(MappedInput input) {
+        long size = input.size();
+        int chunks = (int) Math.max(1, (size + CHUNK_BYTES - 1) / CHUNK_BYTES);
+
+        long[] bounds = new long[chunks + 1];
+        int count = 1;
+        for(int i=1; i<chunks; i++) {
+            long pos = Math.max((long) i * CHUNK_BYTES, bounds[count - 1]);
+            while(pos < size && input.byteAt(pos - 1) != '\n')
+                pos++;
+            if(pos < size)
+                bounds[count++] = pos;
+        }
+        bounds[count++] = size;
+
+        return new DialScan(input, Arrays.copyOf(bounds, count));
+    }
+
+    // ends at (p + shift) % 100 from p, passing 0 hits[p] times
+    record Transfer(int shift, long[] hits) {
+        static final Transfer IDENTITY = new Transfer(0, new long[POSITIONS]);
+
+        Transfer then(Transfer next) {
+            long[] combined = new long[POSITIONS];
+            for(int p=0; p<POSITIONS; p++)
+                combined[p] = Math.addExact(hits[p], next.hits[(p + shift) % POSITIONS]);
+            return new Transfer((shift + next.shift) % POSITIONS, combined);
+        }
+    }
+
+    @Override
+    public long countZeroes(int start) {
+        Transfer log = IntStream.range(0, bounds.length - 1).parallel()
+                .mapToObj(this::transfer)
+                .reduce(Transfer.IDENTITY, Transfer::then);
+        return log.hits()[start];
+    }
+
+    // A dial at r hits 0 turning right by e (mod 100) clicks when r >= 100 - e, turning left when 1 <= r <= e,
+    // and either way when e = 0 and r = 0, on top of one hit per full turn. With the chunk so far having moved
+    // every start by offset, r = p + offset, so the starts that hit are the range shifted back by offset.
+    Transfer transfer(int chunk) {
+        long[] diff = new long[POSITIONS + 1];
+        long laps = 0;
+        int offset = 0;
+
+        int end = (int) (bounds[chunk + 1] - bounds[chunk]);
+        byte[] bytes = BUFFER.get();
+        if(bytes.length < end)
+            BUFFER.set(bytes = new byte[end]);
+        input.copy(bounds[chunk], bytes, 0, end);
+
+        int pos = 0;
+        while(pos < end) {
+            byte direction = bytes[pos++];
+            if(direction == '\n' || direction == '\r' || direction == ' ')
+                continue;
+            if(direction != 'L' && direction != 'R')
+                throw new IllegalArgumentException("Unexpected '" + (char) direction + "' at byte " + (bounds[chunk] + pos - 1));
+
+            long clicks = 0;
+            while(pos < end && bytes[pos] >= '0' && bytes[pos] <= '9')
+                clicks = Math.addExact(Math.multiplyExact(clicks, 10), bytes[pos++] - '0');
+
+            laps += clicks / POSITIONS;
+            int e = (int) (clicks % POSITIONS);
+
+            int from, length;
+            if(e == 0) {
+                from = 0;
+                length = 1;
+            } else if(direction == 'R') {
+                from = POSITIONS - e;
+                length = e;
+            } else {
+                from = 1;
+                length = e;
+            }
+            int shifted = from - offset;
+            addCyclic(diff, shifted < 0 ? shifted + POSITIONS : shifted, length);
+
+            offset += direction == 'R' ? e : POSITIONS - e;
+            if(offset >= POSITIONS)
+                offset -= POSITIONS;
+        }
+
+        long[] hits = new long[POSITIONS];
+        long running = laps;
+        for(int p=0; p<POSITIONS; p++) {
+            running += diff[p];
+            hits[p] = running;
+        }
+        return new Transfer(offset, hits);
+    }
+
+    // +1 on positions [from, from + length) wrapping past 99
+    private static void addCyclic(long[] diff, int from, int length) {
+        int to = from + length;
+        diff[from]++;
+        if(to <= POSITIONS) {
+            diff[to]--;
+        } else {
+            diff[POSITIONS]--;
+            diff[0]++;
+            diff[to - POSITIONS]--;
+        }
+    }
+}
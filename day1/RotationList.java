@@ -0,0 +1,78 @@
+package day1;
+
+import java.util.Arrays;
+
+import common.MappedInput;
+import common.Trace;
+
+// rotations as signed click counts, L is negative and R is positive, walked one at a time
+public class RotationList implements RotationLog {
+    private final int[] rotations;
+
+    public RotationList(int[] rotations) {
+        this.rotations = rotations;
+    }
+
+    public static RotationList parse(MappedInput input) {
+        int[] rotations = new int[1024];
+        int count = 0;
+
+        do {
+            if(input.isBlankLine())
+                continue;
+
+            byte direction = input.next();
+            int digits = (int) input.nextLong();
+
+            if(count == rotations.length)
+                rotations = Arrays.copyOf(rotations, count * 2);
+            rotations[count++] = direction == 'L' ? -digits : digits;
+        } while(input.nextLine());
+
+        return new RotationList(Arrays.copyOf(rotations, count));
+    }
+
+    @Override
+    public long countZeroes(int start) {
+        int currentPos = start;
+        long count = 0;
+
+        for(int rotation : rotations)
+        {
+            if(Trace.TRACE) Trace.printf(SecretEntrance.out, "Digits : %d, Pos : %d\n", Math.abs(rotation), currentPos);
+
+            count += zeroes(currentPos, rotation);
+            currentPos = turn(currentPos, rotation);
+            if(Trace.TRACE) Trace.printf(SecretEntrance.out, "Final Pos : %d, Count : %d\n", currentPos, count);
+        }
+
+        return count;
+    }
+
+    // times a single rotation from position passes or lands on 0
+    static long zeroes(int position, int rotation) {
+        int digits = Math.abs(rotation);
+
+        long count = digits / 100;
+        digits %= 100;
+
+        int nextPos = rotation < 0 ? position - digits : position + digits;
+        if(nextPos < 0) {
+            nextPos = 100 + nextPos;
+            if(position != 0)
+                count++;
+        } else if (nextPos > 99) {
+            nextPos = nextPos - 100;
+            if (nextPos != 0)
+                count++;
+        }
+
+        if(nextPos == 0)
+            count++;
+        return count;
+    }
+
+    static int turn(int position, int rotation) {
+        return Math.floorMod(position + rotation % 100, 100);
+    }
+}
@@ -0,0 +1,7 @@
+package day1;
+
+// the dial rotations SecretEntrance counts zeroes over, see RotationList and DialScan
+public interface RotationLog {
+    // times the dial points at 0, during or at the end of a rotation, starting from the given position
+    long countZeroes(int start);
+}
@@ -1,66 +1,77 @@
 package day1;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.PrintStream;
-import java.io.FileOutputStream;
 
-public class SecretEntrance
-{
-    public static String INPUT_FILENAME = "input.txt";
-    public static String OUTPUT_FILENAME = "output.txt";
-    public static void main(String[] args) {
-        // int zeroesCount = 0;
-        int currentPos = 50;
-        int count = 0;
+import common.LineCursor;
+import common.MappedInput;
+import common.Runner;
+import common.Solver;
+import common.StreamingSolver;
+import common.utils;
 
-        try(BufferedReader br = new BufferedReader(new FileReader(INPUT_FILENAME));
-            PrintStream out = new PrintStream(new FileOutputStream(OUTPUT_FILENAME)))
-        {
-            String line = br.readLine();
-            
-            while(line != null)
-            {
-                char direction = line.charAt(0);
-                int digits = Integer.parseInt(line.substring(1,line.length()));
-                
-                count += digits / 100;
-                out.printf("Digits : %d, Pos : %d\n", digits,  currentPos);
-                
-                digits %= 100;
-                int nextPos = -1;
-
-                if(direction == 'L')
-                    nextPos = currentPos - digits;
-                else
-                    nextPos = currentPos + digits;
+public class SecretEntrance implements Solver<RotationLog>, StreamingSolver
+{
+    public static PrintStream out = utils.initializeOutputStream();
 
-                if(nextPos < 0) {
-                    nextPos = 100 + nextPos;
-                    if(currentPos != 0)
-                        count++;
-                } else if (nextPos > 99) {
-                    nextPos = nextPos - 100;
-                    if (nextPos != 0)
-                        count++;
-                }
+    private static final String MODE = System.getProperty("day1.mode", "serial");
+    private static final long MAX_SERIAL_LOG = 1L << 30;
 
-                if(nextPos == 0)
-                {
-                    // zeroesCount++;
-                    count++;
-                }
-                currentPos = nextPos;
-                line = br.readLine();
-                out.printf("Final Pos : %d, Count : %d\n", currentPos, count);
-            };
-            
-            out.printf("Answer : %d\n", count);
+    public static void main(String[] args) {
+        try {
+            long ans = Runner.run(new SecretEntrance(), out, args);
 
+            out.printf("Answer : %d\n", ans);
+            System.out.println("Answer : " + ans);
         }
         catch(Exception e)
         {
             System.out.printf("Exception :!! %s", e );
         }
     }
-}
\ No newline at end of file
+
+    @Override
+    public void setOutput(PrintStream stream) {
+        out = stream;
+    }
+
+    // logs over 1GB (or any log with -Dday1.mode=scan) are scanned in parallel chunks instead of loaded
+    @Override
+    public RotationLog parse(MappedInput input) {
+        if(MODE.equals("scan") || input.size() > MAX_SERIAL_LOG)
+            return DialScan.parse(input);
+        return RotationList.parse(input);
+    }
+
+    @Override
+    public long solve(RotationLog rotations) {
+        return rotations.countZeroes(50);
+    }
+
+    // one rotation at a time off a stream, only the dial position is kept
+    @Override
+    public Sink open() {
+        LineCursor cursor = new LineCursor();
+        return new Sink() {
+            private int position = 50;
+            private long count = 0;
+
+            @Override
+            public void accept(byte[] line, int from, int to) {
+                if(cursor.reset(line, from, to).isBlankLine())
+                    return;
+
+                byte direction = cursor.next();
+                int digits = (int) cursor.nextLong();
+                int rotation = direction == 'L' ? -digits : digits;
+
+                count += RotationList.zeroes(position, rotation);
+                position = RotationList.turn(position, rotation);
+            }
+
+            @Override
+            public long finish() {
+                return count;
+            }
+        };
+    }
+}
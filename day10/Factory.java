@@ -3,21 +3,26 @@ package day10;
 import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.Arrays;
-
+import java.util.List;
+
+import common.LineCursor;
+import common.MappedInput;
+import common.Runner;
+import common.Solver;
+import common.StreamingSolver;
+import common.Trace;
 import common.utils;
 
-public class Factory {
+public class Factory implements Solver<ArrayList<Machine>>, StreamingSolver {
     public static PrintStream out = utils.initializeOutputStream();
 
+    // part 2 of the last solve(), solve() only returns part 1
+    private long partTwo;
+
     public static void main(String[] args) {
         try {
-            long startTime = utils.getCurrentTime();
-            
-            long ans = utils.readInputAndSolve(Factory::solve);
+            long ans = Runner.run(new Factory(), out, args);
 
-            long endTime = utils.getCurrentTime();
-
-            utils.printTimeStats(out, startTime, endTime);
             out.printf("Asnwer : %d\n", ans);
             System.out.println("Answer : " + ans);
         } catch (Exception e) {
@@ -26,84 +31,79 @@ public class Factory {
         }
     }    
 
-    private static long solve(ArrayList<String> lines) {
-        long ans = 0;
-        
-        for(String line : lines) {
-            String[] parts = line.split(" ");
-
-            ans += findMinMoves(parts);
-        }
+    @Override
+    public void setOutput(PrintStream stream) {
+        out = stream;
+    }
 
-        return ans;
+    @Override
+    public ArrayList<Machine> parse(MappedInput input) {
+        return Machine.parseAll(input);
     }
-    
-    private static long findMinMoves(String[] parts) {
-        String lightMap = parts[0].substring(1, parts[0].length()-1);
 
-        ArrayList<int[]> buttons = extractButtons(parts);
+    @Override
+    public long solve(ArrayList<Machine> machines) {
+        long ans = 0;
+        
+        for(Machine machine : machines)
+            ans += findMinMoves(machine);
 
-        out.printf("LightMap : %s\n", lightMap);
-        out.print("Buttons : ");
-        for(int i=0; i<buttons.size(); i++) {
-            out.print(Arrays.toString(buttons.get(i)));
-            if(i < buttons.size()-1) out.print(", ");
-        }
-        out.println();
+        // the machines are independent, and the joltage search is by far the heavier part
+        long presses = machines.parallelStream()
+            .mapToLong(machine -> JoltageSolver.minPresses(machine.buttons(), machine.joltage()))
+            .reduce(0, Math::addExact);
+        partTwo = presses;
+        out.printf("Answer Part 2 : %d\n", presses);
 
-        return permutations(buttons, lightMap);
+        return ans;
     }
 
-    private static ArrayList<int[]> extractButtons(String[] parts) {
-        ArrayList<int[]> buttons = new ArrayList<>();
-
-        for(int i=1; i<parts.length-1; i++) {
-            int[] cur = Arrays.stream(parts[i].substring(1, parts[i].length()-1)
-                              .split(","))
-                              .mapToInt(Integer::parseInt)
-                              .toArray();
-            buttons.add(cur);
-        }
-
-        return buttons;
+    @Override
+    public List<String> answers(long solved) {
+        return List.of(Long.toString(solved), Long.toString(partTwo));
     }
+    
+    // machines off a stream one at a time, both parts are solved as soon as a machine is read
+    @Override
+    public Sink open() {
+        LineCursor cursor = new LineCursor();
+        return new Sink() {
+            private long ans = 0;
+            private long presses = 0;
+
+            @Override
+            public void accept(byte[] line, int from, int to) {
+                if(cursor.reset(line, from, to).isBlankLine())
+                    return;
+
+                Machine machine = Machine.parse(cursor);
+                ans += findMinMoves(machine);
+                presses = Math.addExact(presses, JoltageSolver.minPresses(machine.buttons(), machine.joltage()));
+            }
 
-    private static long permutations(ArrayList<int[]> buttons, String lightMap) {
-        long ans = Long.MAX_VALUE;
+            @Override
+            public long finish() {
+                partTwo = presses;
+                out.printf("Answer Part 2 : %d\n", presses);
+                return ans;
+            }
 
-        int n = buttons.size();
-        for(int i=1; i<=(1<<n)-1; i++) {
-            out.println("Calculating for mask " + i + "---------");
-            String curMap = pressButtons(buttons, i, n, lightMap.length());
-            if(lightMap.equals(curMap)) {
-                out.printf("Match found at i=%d, count=%d\n", i, Integer.bitCount(i));
-                ans = Math.min(ans, Integer.bitCount(i));
+            @Override
+            public List<String> answers(long finished) {
+                return Factory.this.answers(finished);
             }
-        }
-        
-        return ans;
+        };
     }
-    
-    private static String pressButtons(ArrayList<int[]> buttons, int mask, int n, int len) {
-        StringBuilder cur = new StringBuilder();
-        cur.repeat('.', len);
-        
-        for(int i=0; i<n; i++) {
-            if(utils.isBitSet(mask, i)) {
-                out.printf("Clicking button %d for mask %d\n", i, mask);
-                int[] button = buttons.get(i);
-                for(int key : button) {
-                    if(cur.charAt(key) == '.')
-                        cur.setCharAt(key, '#');
-                    else
-                        cur.setCharAt(key, '.');
-                }
-            }
+
+    private static long findMinMoves(Machine machine) {
+        if(Trace.DEBUG) {
+            Trace.printf(out, "Target : %s\nButtons : %s\n",
+                Long.toBinaryString(machine.target()), Arrays.toString(machine.buttons()));
         }
-        
-        
-        out.printf("Mask = %d : Map = %s\n", mask, cur.toString());
 
-        return cur.toString();
+        int presses = LightSolver.minPresses(machine.buttons(), machine.target());
+        if(Trace.DEBUG) Trace.printf(out, "Min presses : %d\n", presses);
+
+        return presses;
     }
 }
@@ -0,0 +1,146 @@
+package day10;
+
+import java.util.Arrays;
+
+// Every press of button j adds 1 to each counter it is wired to, so the presses x have to solve A x = b exactly,
+// with A[i][j] = 1 when button j is wired to counter i, x >= 0 and the least total sum(x).
+// This is a small integer program, solved by branch and bound on its LP relaxation: each node solves the
+// relaxation inside the current press ranges, is cut when its total rounded up cannot beat the best so far,
+// and otherwise splits the range of the most fractional button around its relaxed value. The relaxation of
+// these systems is close to integral, so the tree stays small with dozens of counters and presses in the
+// hundreds. The doubles only steer the search, a solution is checked against the counters in exact
+// integers before it is accepted.
+final class JoltageSolver {
+    private static final double EPS = 1e-6;
+
+    private final long[] buttons;
+    private final int[] joltage;
+
+    // best total found so far
+    private long best = Long.MAX_VALUE;
+
+    private JoltageSolver(long[] buttons, int[] joltage) {
+        this.buttons = buttons;
+        this.joltage = joltage;
+    }
+
+    // least total number of presses taking every counter from 0 to exactly joltage[i], buttons[j] is the mask
+    // of counters button j is wired to
+    static long minPresses(long[] buttons, int[] joltage) {
+        int m = joltage.length, n = buttons.length;
+
+        // a button can be pressed at most as often as the smallest counter it is wired to allows
+        long[] hi = new long[n];
+        for(int j=0; j<n; j++) {
+            long bound = Long.MAX_VALUE;
+            for(int i=0; i<m; i++) {
+                if((buttons[j] >>> i & 1) != 0)
+                    bound = Math.min(bound, joltage[i]);
+            }
+            hi[j] = bound == Long.MAX_VALUE ? 0 : bound;
+        }
+
+        JoltageSolver solver = new JoltageSolver(buttons, joltage);
+        solver.branch(new long[n], hi);
+
+        if(solver.best == Long.MAX_VALUE)
+            throw new IllegalArgumentException("Joltage " + Arrays.toString(joltage) + " cannot be reached");
+        return solver.best;
+    }
+
+    private void branch(long[] lo, long[] hi) {
+        double[] x = relax(lo, hi);
+        if(x == null)
+            return;
+
+        // whole solutions have whole totals, so the relaxed total can be rounded up
+        double total = 0;
+        for(double presses : x)
+            total += presses;
+        if(Math.ceil(total - EPS) >= best)
+            return;
+
+        int split = -1;
+        double fraction = EPS;
+        for(int j=0; j<x.length; j++) {
+            double off = Math.abs(x[j] - Math.rint(x[j]));
+            if(off > fraction) {
+                fraction = off;
+                split = j;
+            }
+        }
+
+        if(split < 0) {
+            long[] presses = new long[x.length];
+            for(int j=0; j<x.length; j++)
+                presses[j] = Math.round(x[j]);
+            if(reaches(presses))
+                best = Math.min(best, Arrays.stream(presses).sum());
+            return;
+        }
+
+        // the side nearer to the relaxed value first, it is the likelier one to hold a good solution
+        long down = (long) Math.floor(x[split]);
+        boolean downFirst = x[split] - down < 0.5;
+        for(int side=0; side<2; side++) {
+            if(side == 0 == downFirst) {
+                long saved = hi[split];
+                hi[split] = down;
+                branch(lo, hi);
+                hi[split] = saved;
+            } else {
+                long saved = lo[split];
+                lo[split] = down + 1;
+                branch(lo, hi);
+                lo[split] = saved;
+            }
+        }
+    }
+
+    // LP relaxation inside [lo, hi], in terms of y = x - lo: A y = b - A lo and y <= hi - lo.
+    // Returns x, or null when there is no solution
+    private double[] relax(long[] lo, long[] hi) {
+        int m = joltage.length, n = buttons.length;
+        double[][] g = new double[m + n][n];
+        double[] h = new double[m + n];
+        double[] cost = new double[n];
+
+        for(int i=0; i<m; i++) {
+            long rest = joltage[i];
+            for(int j=0; j<n; j++) {
+                if((buttons[j] >>> i & 1) != 0) {
+                    g[i][j] = 1;
+                    rest -= lo[j];
+                }
+            }
+            h[i] = rest;
+        }
+        for(int j=0; j<n; j++) {
+            if(lo[j] > hi[j])
+                return null;
+            g[m + j][j] = 1;
+            h[m + j] = hi[j] - lo[j];
+            cost[j] = 1;
+        }
+
+        double[] y = Simplex.minimize(g, h, m, cost);
+        if(y == null)
+            return null;
+        for(int j=0; j<n; j++)
+            y[j] += lo[j];
+        return y;
+    }
+
+    private boolean reaches(long[] presses) {
+        for(int i=0; i<joltage.length; i++) {
+            long counter = 0;
+            for(int j=0; j<buttons.length; j++) {
+                if((buttons[j] >>> i & 1) != 0)
+                    counter += presses[j];
+            }
+            if(counter != joltage[i])
+                return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,141 @@
+package day10;
+
+import java.util.Arrays;
+
+// Toggling is addition over GF(2): pressing a button twice is the same as not pressing it, so a solution is a
+// set of buttons whose masks xor to the target, i.e. an x with A x = t where column j of A is button j.
+// Gaussian elimination gives one solution x0 and a basis of the null space, and every other solution is x0
+// xor a combination of that basis. The cheapest one is found by walking whichever space is smaller:
+//  - the 2^free null space combinations in Gray code order, one xor per step
+//  - or, when there are more free buttons than independent lights, a BFS over the 2^rank reachable light
+//    states, where the distance to the target is the least number of presses
+// so the cost is O(2^min(free, rank)) instead of O(2^n) over all button masks.
+final class LightSolver {
+    // 2^28 steps is well under a second, anything bigger is refused instead of running for hours
+    private static final int MAX_SEARCH_BITS = 28;
+
+    private LightSolver() {}
+
+    // least number of presses turning exactly the lights in target on, buttons[j] is the mask of lights button j
+    // toggles
+    static int minPresses(long[] buttons, long target) {
+        int n = buttons.length;
+        if(n > Long.SIZE)
+            throw new IllegalArgumentException("More than " + Long.SIZE + " buttons on a machine");
+
+        // rows[r] is light r: bit j set when button j toggles it, and bit r of rhs is its target state
+        long[] rows = new long[Long.SIZE];
+        long rhs = target;
+        for(int j=0; j<n; j++) {
+            for(long mask = buttons[j]; mask != 0; mask &= mask - 1)
+                rows[Long.numberOfTrailingZeros(mask)] |= 1L << j;
+        }
+
+        // reduced row echelon form, pivots[r] is the button leading row r
+        int[] pivots = new int[Long.SIZE];
+        int rank = 0;
+        for(int col=0; col<n && rank<Long.SIZE; col++) {
+            int pivot = rank;
+            while(pivot < Long.SIZE && (rows[pivot] >>> col & 1) == 0)
+                pivot++;
+            if(pivot == Long.SIZE)
+                continue;
+
+            long row = rows[pivot];
+            rows[pivot] = rows[rank];
+            rows[rank] = row;
+            rhs = swapBits(rhs, pivot, rank);
+
+            long rhsBit = rhs >>> rank & 1;
+            for(int r=0; r<Long.SIZE; r++) {
+                if(r != rank && (rows[r] >>> col & 1) != 0) {
+                    rows[r] ^= row;
+                    rhs ^= rhsBit << r;
+                }
+            }
+            pivots[rank++] = col;
+        }
+
+        // a light no button combination can change but which has to flip
+        if(rank < Long.SIZE && rhs >>> rank != 0)
+            throw new IllegalArgumentException("Target lights cannot be reached with these buttons");
+
+        int free = n - rank;
+        if(Math.min(free, rank) > MAX_SEARCH_BITS)
+            throw new IllegalArgumentException("Search space of 2^" + Math.min(free, rank) + " is too big");
+
+        return free <= rank
+            ? searchNullSpace(rows, rhs, pivots, rank, n)
+            : searchStates(rows, rhs, rank, n);
+    }
+
+    private static int searchNullSpace(long[] rows, long rhs, int[] pivots, int rank, int n) {
+        long pivotMask = 0;
+        long x = 0;
+        for(int r=0; r<rank; r++) {
+            pivotMask |= 1L << pivots[r];
+            if((rhs >>> r & 1) != 0)
+                x |= 1L << pivots[r];
+        }
+
+        // one basis vector per free button f: press f, and fix up the pivot buttons of the rows it appears in
+        long freeMask = ~pivotMask & (n == Long.SIZE ? -1L : (1L << n) - 1);
+        long[] basis = new long[Long.bitCount(freeMask)];
+        int k = 0;
+        for(long mask = freeMask; mask != 0; mask &= mask - 1) {
+            int f = Long.numberOfTrailingZeros(mask);
+            long v = 1L << f;
+            for(int r=0; r<rank; r++) {
+                if((rows[r] >>> f & 1) != 0)
+                    v |= 1L << pivots[r];
+            }
+            basis[k++] = v;
+        }
+
+        // Gray code: step g flips exactly one basis vector, the one at the lowest set bit of g
+        int best = Long.bitCount(x);
+        for(long g = 1; g < 1L << basis.length; g++) {
+            x ^= basis[Long.numberOfTrailingZeros(g)];
+            best = Math.min(best, Long.bitCount(x));
+        }
+        return best;
+    }
+
+    // In the reduced system the pivot buttons are a basis of every light state that can be reached, and column j
+    // holds the coordinates of button j in that basis, so states are rank bit numbers and presses are xors.
+    private static int searchStates(long[] rows, long rhs, int rank, int n) {
+        int[] moves = new int[n];
+        for(int j=0; j<n; j++) {
+            for(int r=0; r<rank; r++)
+                moves[j] |= (int) (rows[r] >>> j & 1) << r;
+        }
+        int goal = (int) (rhs & (1L << rank) - 1);
+
+        byte[] dist = new byte[1 << rank];
+        Arrays.fill(dist, (byte) -1);
+        int[] queue = new int[1 << rank];
+        int head = 0, tail = 0;
+        dist[0] = 0;
+        queue[tail++] = 0;
+
+        while(head < tail) {
+            int state = queue[head++];
+            if(state == goal)
+                return dist[state];
+            for(int move : moves) {
+                int next = state ^ move;
+                if(dist[next] < 0) {
+                    dist[next] = (byte) (dist[state] + 1);
+                    queue[tail++] = next;
+                }
+            }
+        }
+
+        throw new IllegalStateException("Reduced target " + goal + " not reached");
+    }
+
+    private static long swapBits(long value, int i, int j) {
+        long diff = (value >>> i ^ value >>> j) & 1;
+        return value ^ (diff << i | diff << j);
+    }
+}
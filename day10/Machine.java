@@ -0,0 +1,90 @@
+package day10;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import common.LineCursor;
+import common.MappedInput;
+
+// one line of the manual: [.##.] (3) (1,3) ... {3,5,4,7}
+// bit i of target is set when light i has to end up on, bit i of buttons[j] when button j toggles light i
+record Machine(int lights, long target, long[] buttons, int[] joltage) {
+    static ArrayList<Machine> parseAll(MappedInput input) {
+        ArrayList<Machine> machines = new ArrayList<>();
+        do {
+            if(input.isBlankLine())
+                continue;
+            machines.add(parse(input));
+        } while(input.nextLine());
+
+        return machines;
+    }
+
+    // parses the machine on the current line, leaves the cursor at its end
+    static Machine parse(MappedInput input) {
+        long end = input.lineEnd();
+        byte[] line = new byte[(int) (end - input.position())];
+        input.copy(input.position(), line, 0, line.length);
+        input.seek(end);
+
+        return parse(new LineCursor().reset(line, 0, line.length));
+    }
+
+    static Machine parse(LineCursor input) {
+        try {
+            return read(input);
+        } catch(IllegalStateException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed machine \"" + input.lineString() + "\" : " + e.getMessage(), e);
+        }
+    }
+
+    private static Machine read(LineCursor input) {
+        int lights = 0;
+        long target = 0;
+        long[] buttons = new long[16];
+        int count = 0;
+        int[] joltage = new int[0];
+
+        while(!input.isLineEnd()) {
+            byte b = input.next();
+            if(b == '[') {
+                while((b = input.next()) != ']') {
+                    if(lights == Long.SIZE)
+                        throw new IllegalArgumentException("More than " + Long.SIZE + " lights on a machine");
+                    if(b == '#')
+                        target |= 1L << lights;
+                    lights++;
+                }
+            } else if(b == '(') {
+                long button = 0;
+                while(input.peek() != ')') {
+                    int light = input.nextInt();
+                    if(light >= Long.SIZE)
+                        throw new IllegalArgumentException("Light " + light + " out of range");
+                    button |= 1L << light;
+                    if(input.peek() == ',')
+                        input.next();
+                }
+                input.next();
+
+                if(count == buttons.length)
+                    buttons = Arrays.copyOf(buttons, count * 2);
+                buttons[count++] = button;
+            } else if(b == '{') {
+                int[] values = new int[Math.max(lights, 1)];
+                int n = 0;
+                while(input.peek() != '}') {
+                    if(n == values.length)
+                        values = Arrays.copyOf(values, n * 2);
+                    values[n++] = input.nextInt();
+                    if(input.peek() == ',')
+                        input.next();
+                }
+                input.next();
+                joltage = Arrays.copyOf(values, n);
+            }
+        }
+
+        return new Machine(lights, target, Arrays.copyOf(buttons, count), joltage);
+    }
+}
@@ -0,0 +1,131 @@
+package day10;
+
+// Dense two-phase tableau simplex for the small relaxations JoltageSolver bounds its search with:
+// minimize cost . y subject to g y = h on the first rows, g y <= h on the others, and y >= 0.
+// Bland's rule picks the pivots, so it cannot cycle. The problems it sees have a few dozen variables and
+// rows, where a dense tableau is the simplest and also the fastest option.
+final class Simplex {
+    private static final double EPS = 1e-9;
+
+    private Simplex() {}
+
+    // optimal y, or null when there is none. The feasible region is always bounded in JoltageSolver,
+    // so an unbounded problem is not expected and is reported as an IllegalStateException
+    static double[] minimize(double[][] g, double[] h, int equalities, double[] cost) {
+        int m = h.length, n = cost.length;
+
+        // equalities, and rows with a negative bound that start infeasible at y = 0, get an artificial variable
+        // for phase 1
+        int artificial = 0;
+        for(int i=0; i<m; i++) {
+            if(i < equalities || h[i] < 0)
+                artificial++;
+        }
+
+        int cols = n + m + artificial;
+        double[][] t = new double[m][cols + 1];
+        int[] basis = new int[m];
+        int next = n + m;
+        for(int i=0; i<m; i++) {
+            double sign = h[i] < 0 ? -1 : 1;
+            for(int j=0; j<n; j++)
+                t[i][j] = sign * g[i][j];
+            if(i >= equalities)
+                t[i][n + i] = sign;
+            t[i][cols] = sign * h[i];
+
+            if(i < equalities || sign < 0) {
+                t[i][next] = 1;
+                basis[i] = next++;
+            } else {
+                basis[i] = n + i;
+            }
+        }
+
+        if(artificial > 0) {
+            double[] phase1 = new double[cols];
+            for(int j=n+m; j<cols; j++)
+                phase1[j] = 1;
+            if(run(t, basis, phase1, cols) > EPS)
+                return null;
+
+            // push the artificials still in the basis at 0 out, rows where that is impossible are redundant
+            for(int i=0; i<m; i++) {
+                if(basis[i] < n + m)
+                    continue;
+                for(int j=0; j<n+m; j++) {
+                    if(Math.abs(t[i][j]) > EPS) {
+                        pivot(t, basis, i, j);
+                        break;
+                    }
+                }
+            }
+        }
+
+        double[] phase2 = new double[cols];
+        System.arraycopy(cost, 0, phase2, 0, n);
+        run(t, basis, phase2, n + m);
+
+        double[] y = new double[n];
+        for(int i=0; i<m; i++) {
+            if(basis[i] < n)
+                y[basis[i]] = t[i][cols];
+        }
+        return y;
+    }
+
+    // minimizes cost over the current tableau, only letting columns below allowed enter, returns the optimum
+    private static double run(double[][] t, int[] basis, double[] cost, int allowed) {
+        int m = t.length, rhs = t[0].length - 1;
+
+        while(true) {
+            int enter = -1;
+            for(int j=0; j<allowed && enter<0; j++) {
+                double reduced = cost[j];
+                for(int i=0; i<m; i++)
+                    reduced -= cost[basis[i]] * t[i][j];
+                if(reduced < -EPS)
+                    enter = j;
+            }
+
+            if(enter < 0) {
+                double value = 0;
+                for(int i=0; i<m; i++)
+                    value += cost[basis[i]] * t[i][rhs];
+                return value;
+            }
+
+            int leave = -1;
+            double ratio = Double.POSITIVE_INFINITY;
+            for(int i=0; i<m; i++) {
+                if(t[i][enter] <= EPS)
+                    continue;
+                double r = t[i][rhs] / t[i][enter];
+                if(r < ratio - EPS || r < ratio + EPS && leave >= 0 && basis[i] < basis[leave]) {
+                    ratio = r;
+                    leave = i;
+                }
+            }
+            if(leave < 0)
+                throw new IllegalStateException("Unbounded relaxation");
+
+            pivot(t, basis, leave, enter);
+        }
+    }
+
+    private static void pivot(double[][] t, int[] basis, int row, int col) {
+        double[] pivotRow = t[row];
+        double p = pivotRow[col];
+        for(int j=0; j<pivotRow.length; j++)
+            pivotRow[j] /= p;
+
+        for(int i=0; i<t.length; i++) {
+            if(i == row || t[i][col] == 0)
+                continue;
+            double factor = t[i][col];
+            for(int j=0; j<pivotRow.length; j++)
+                t[i][j] -= factor * pivotRow[j];
+        }
+        basis[row] = col;
+    }
+}
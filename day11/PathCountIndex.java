@@ -0,0 +1,331 @@
+package day11;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Long lived path counts over a wiring graph that changes now and then. For every (target, waypoints) pair
+// that has been asked about there is a table of ways(v, need) = paths from v to target that go through all
+// the waypoints in need, filled lazily per device the first time a query needs it, so later queries with the
+// same target and waypoints are answered from it whatever their source is.
+// A device's counts only depend on what is below it, so adding or removing the edge a -> b only invalidates a
+// and its ancestors, found by walking the reverse edges. A device is only ever filled after everything below
+// it, so a missing device always has all its ancestors missing too, and the walk stops at the first device
+// that is already missing.
+// Queries fill the tables as they go, so every call holds one lock.
+public class PathCountIndex {
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final HashMap<String, Integer> ids = new HashMap<>();
+    private final ArrayList<String> names = new ArrayList<>();
+
+    // out[v][0 .. outSize[v]) are the outputs of v, in[v] the same for its inputs, repeated wires repeat
+    private int[][] out = new int[16][];
+    private int[][] in = new int[16][];
+    private int[] outSize = new int[16];
+    private int[] inSize = new int[16];
+
+    private final int maxTables;
+    private final LinkedHashMap<Key, Table> tables;
+
+    private record Key(int target, List<Integer> waypoints) {}
+
+    private class Table {
+        final int target;
+        final int[] waypoints;
+        final int masks;
+        // ways[v][need], null while v is not filled in
+        long[][] ways = new long[names.size()][];
+
+        Table(int target, int[] waypoints) {
+            this.target = target;
+            this.waypoints = waypoints;
+            this.masks = 1 << waypoints.length;
+        }
+    }
+
+    // keeps the tables of the maxTables (target, waypoints) pairs used most recently
+    public PathCountIndex(int maxTables) {
+        this.maxTables = maxTables;
+        this.tables = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Table> eldest) {
+                return size() > PathCountIndex.this.maxTables;
+            }
+        };
+    }
+
+    // starts from a parsed graph, throws if it has a cycle
+    public static PathCountIndex of(PathGraph graph, int maxTables) {
+        PathCountIndex index = new PathCountIndex(maxTables);
+        for(int v=0; v<graph.size(); v++)
+            index.intern(graph.name(v));
+        for(int v=0; v<graph.size(); v++) {
+            for(int u : graph.outputs(v))
+                index.link(v, u);
+        }
+
+        index.checkAcyclic();
+        return index;
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return names.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int cachedTables() {
+        lock.lock();
+        try {
+            return tables.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // number of paths from source to target through every waypoint, 0 if any of them has never been seen
+    public long count(String source, String target, String... waypoints) {
+        lock.lock();
+        try {
+            Integer from = ids.get(source), to = ids.get(target);
+            if(from == null || to == null)
+                return 0;
+
+            int[] required = new int[waypoints.length];
+            for(int i=0; i<waypoints.length; i++) {
+                Integer id = ids.get(waypoints[i]);
+                if(id == null)
+                    return 0;
+                required[i] = id;
+            }
+            required = Arrays.stream(required).sorted().distinct().toArray();
+            if(required.length > 20)
+                throw new IllegalArgumentException(required.length + " waypoints is too many for a bitmask table");
+
+            Key key = new Key(to, Arrays.stream(required).boxed().toList());
+            Table table = tables.computeIfAbsent(key, k -> new Table(to, k.waypoints().stream().mapToInt(Integer::intValue).toArray()));
+
+            return fill(table, from)[table.masks - 1];
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // adds the wire a -> b, creating the devices if needed. Throws if it would close a cycle, the graph is
+    // left as it was
+    public void addEdge(String a, String b) {
+        lock.lock();
+        try {
+            int from = intern(a), to = intern(b);
+            if(reaches(to, from))
+                throw new IllegalArgumentException("Wire " + a + " -> " + b + " would close a cycle");
+
+            link(from, to);
+            invalidate(from);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // removes one wire a -> b, returns false if there is none
+    public boolean removeEdge(String a, String b) {
+        lock.lock();
+        try {
+            Integer from = ids.get(a), to = ids.get(b);
+            if(from == null || to == null)
+                return false;
+            if(!remove(out, outSize, from, to))
+                return false;
+
+            remove(in, inSize, to, from);
+            invalidate(from);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int intern(String name) {
+        Integer id = ids.get(name);
+        if(id != null)
+            return id;
+
+        int v = names.size();
+        ids.put(name, v);
+        names.add(name);
+        if(v == out.length) {
+            out = Arrays.copyOf(out, v * 2);
+            in = Arrays.copyOf(in, v * 2);
+            outSize = Arrays.copyOf(outSize, v * 2);
+            inSize = Arrays.copyOf(inSize, v * 2);
+        }
+        out[v] = new int[2];
+        in[v] = new int[2];
+
+        for(Table table : tables.values()) {
+            if(table.ways.length <= v)
+                table.ways = Arrays.copyOf(table.ways, Math.max(v + 1, table.ways.length * 2));
+        }
+        return v;
+    }
+
+    private void link(int from, int to) {
+        append(out, outSize, from, to);
+        append(in, inSize, to, from);
+    }
+
+    private static void append(int[][] lists, int[] sizes, int v, int value) {
+        if(sizes[v] == lists[v].length)
+            lists[v] = Arrays.copyOf(lists[v], sizes[v] * 2);
+        lists[v][sizes[v]++] = value;
+    }
+
+    private static boolean remove(int[][] lists, int[] sizes, int v, int value) {
+        int[] list = lists[v];
+        for(int i=0; i<sizes[v]; i++) {
+            if(list[i] == value) {
+                list[i] = list[--sizes[v]];
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Kahn's algorithm over the whole graph, every device has to come out
+    private void checkAcyclic() {
+        int n = names.size();
+        int[] indegree = Arrays.copyOf(inSize, n);
+        int[] queue = new int[n];
+        int head = 0, tail = 0;
+        for(int v=0; v<n; v++) {
+            if(indegree[v] == 0)
+                queue[tail++] = v;
+        }
+        while(head < tail) {
+            int v = queue[head++];
+            for(int e=0; e<outSize[v]; e++) {
+                if(--indegree[out[v][e]] == 0)
+                    queue[tail++] = out[v][e];
+            }
+        }
+
+        if(tail < n)
+            throw new IllegalStateException("The wiring has a cycle, path counts are not finite");
+    }
+
+    // whether there is a path from source to target, used to refuse wires that would close a cycle
+    private boolean reaches(int source, int target) {
+        boolean[] seen = new boolean[names.size()];
+        int[] stack = new int[names.size()];
+        int top = 0;
+        seen[source] = true;
+        stack[top++] = source;
+        while(top > 0) {
+            int v = stack[--top];
+            if(v == target)
+                return true;
+            for(int e=0; e<outSize[v]; e++) {
+                int u = out[v][e];
+                if(!seen[u]) {
+                    seen[u] = true;
+                    stack[top++] = u;
+                }
+            }
+        }
+        return false;
+    }
+
+    // drops v and its ancestors from every table, stopping wherever they are already missing
+    private void invalidate(int v) {
+        int[] stack = new int[16];
+        for(Table table : tables.values()) {
+            if(v >= table.ways.length || table.ways[v] == null)
+                continue;
+
+            int top = 0;
+            table.ways[v] = null;
+            stack[top++] = v;
+            while(top > 0) {
+                int x = stack[--top];
+                for(int e=0; e<inSize[x]; e++) {
+                    int parent = in[x][e];
+                    if(table.ways[parent] != null) {
+                        table.ways[parent] = null;
+                        if(top == stack.length)
+                            stack = Arrays.copyOf(stack, top * 2);
+                        stack[top++] = parent;
+                    }
+                }
+            }
+        }
+    }
+
+    // fills the table for source and everything below it that is missing, children before parents
+    private long[] fill(Table table, int source) {
+        long[][] ways = table.ways;
+        if(ways.length < names.size())
+            ways = table.ways = Arrays.copyOf(ways, names.size());
+        if(ways[source] != null)
+            return ways[source];
+
+        int[] stack = new int[16];
+        int top = 0;
+        stack[top++] = source;
+        while(top > 0) {
+            int v = stack[top - 1];
+            if(ways[v] != null) {
+                top--;
+                continue;
+            }
+
+            boolean ready = true;
+            if(v != table.target) {
+                for(int e=0; e<outSize[v]; e++) {
+                    int u = out[v][e];
+                    if(ways[u] == null) {
+                        ready = false;
+                        if(top == stack.length)
+                            stack = Arrays.copyOf(stack, top * 2);
+                        stack[top++] = u;
+                    }
+                }
+            }
+
+            if(ready) {
+                ways[v] = count(table, v);
+                top--;
+            }
+        }
+
+        return ways[source];
+    }
+
+    // paths end at the target, everywhere else they go on through one of the outputs
+    private long[] count(Table table, int v) {
+        int bit = 0;
+        for(int i=0; i<table.waypoints.length; i++) {
+            if(table.waypoints[i] == v)
+                bit = 1 << i;
+        }
+
+        long[] counts = new long[table.masks];
+        for(int need=0; need<table.masks; need++) {
+            int rest = need & ~bit;
+            if(v == table.target) {
+                counts[need] = rest == 0 ? 1 : 0;
+                continue;
+            }
+            for(int e=0; e<outSize[v]; e++)
+                counts[need] = Math.addExact(counts[need], table.ways[out[v][e]][rest]);
+        }
+        return counts;
+    }
+}
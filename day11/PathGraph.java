@@ -0,0 +1,263 @@
+package day11;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import common.MappedInput;
+
+// The device graph with names interned to dense ids once while parsing, and the edges in CSR form:
+// the outputs of device v are edges[start[v] .. start[v+1]). Path counting is a DP over a topological
+// order with the required waypoints as a bitmask dimension, so it costs O((V+E) * 2^w) and never looks
+// at a string.
+public class PathGraph {
+    private final String[] names;
+    private final HashMap<String, Integer> ids;
+    private final int[] start;
+    private final int[] edges;
+
+    private PathGraph(String[] names, HashMap<String, Integer> ids, int[] start, int[] edges) {
+        this.names = names;
+        this.ids = ids;
+        this.start = start;
+        this.edges = edges;
+    }
+
+    // one device per line, "name: output output ..."
+    public static PathGraph parse(MappedInput input) {
+        HashMap<String, Integer> ids = new HashMap<>();
+        ArrayList<String> names = new ArrayList<>();
+        int[] from = new int[1024];
+        int[] to = new int[1024];
+        int count = 0;
+
+        do {
+            if(input.isBlankLine())
+                continue;
+
+            long end = input.lineEnd();
+            long pos = input.position();
+            long colon = pos;
+            while(colon < end && input.byteAt(colon) != ':')
+                colon++;
+            int source = intern(input, pos, colon, ids, names);
+
+            pos = colon + 1;
+            while(pos < end) {
+                while(pos < end && input.byteAt(pos) == ' ')
+                    pos++;
+                long tokenEnd = pos;
+                while(tokenEnd < end && input.byteAt(tokenEnd) != ' ')
+                    tokenEnd++;
+                if(tokenEnd == pos)
+                    break;
+
+                if(count == from.length) {
+                    from = Arrays.copyOf(from, count * 2);
+                    to = Arrays.copyOf(to, count * 2);
+                }
+                from[count] = source;
+                to[count] = intern(input, pos, tokenEnd, ids, names);
+                count++;
+                pos = tokenEnd;
+            }
+        } while(input.nextLine());
+
+        // counting sort of the edges by source keeps each device's outputs in input order
+        int n = names.size();
+        int[] start = new int[n + 1];
+        for(int i=0; i<count; i++)
+            start[from[i] + 1]++;
+        for(int v=0; v<n; v++)
+            start[v + 1] += start[v];
+
+        int[] edges = new int[count];
+        int[] fill = Arrays.copyOf(start, n);
+        for(int i=0; i<count; i++)
+            edges[fill[from[i]]++] = to[i];
+
+        return new PathGraph(names.toArray(new String[0]), ids, start, edges);
+    }
+
+    private static int intern(MappedInput input, long from, long to, HashMap<String, Integer> ids, ArrayList<String> names) {
+        byte[] bytes = new byte[(int) (to - from)];
+        input.copy(from, bytes, 0, bytes.length);
+        String name = new String(bytes, StandardCharsets.US_ASCII);
+
+        Integer id = ids.get(name);
+        if(id == null) {
+            id = names.size();
+            ids.put(name, id);
+            names.add(name);
+        }
+        return id;
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    public int edgeCount() {
+        return edges.length;
+    }
+
+    // dense id of a device, or -1 if it is not in the graph
+    public int id(String name) {
+        Integer id = ids.get(name);
+        return id == null ? -1 : id;
+    }
+
+    public String name(int id) {
+        return names[id];
+    }
+
+    public int[] outputs(int v) {
+        return Arrays.copyOfRange(edges, start[v], start[v + 1]);
+    }
+
+    // Kahn's algorithm over the devices that lie on some path from source to target: reachable from source
+    // without going through target, and able to reach target. Only a cycle among those makes the number of
+    // paths infinite, so that throws, while cycles off to the side are left out like every other dead end.
+    // Empty if target cannot be reached.
+    public int[] topologicalOrder(int source, int target) {
+        int n = names.length;
+        boolean[] relevant = reachableFrom(source, target);
+        boolean[] reachesTarget = reachesTarget(target);
+        for(int v=0; v<n; v++)
+            relevant[v] &= reachesTarget[v];
+        if(!relevant[source])
+            return new int[0];
+
+        int[] indegree = new int[n];
+        for(int v=0; v<n; v++) {
+            if(relevant[v] && v != target) {
+                for(int e = start[v]; e < start[v + 1]; e++) {
+                    if(relevant[edges[e]])
+                        indegree[edges[e]]++;
+                }
+            }
+        }
+
+        int[] order = new int[n];
+        int head = 0, tail = 0;
+        if(indegree[source] == 0)
+            order[tail++] = source;
+        while(head < tail) {
+            int v = order[head++];
+            if(v == target)
+                continue;
+            for(int e = start[v]; e < start[v + 1]; e++) {
+                if(relevant[edges[e]] && --indegree[edges[e]] == 0)
+                    order[tail++] = edges[e];
+            }
+        }
+
+        for(int v=0; v<n; v++) {
+            if(relevant[v] && indegree[v] > 0)
+                throw new IllegalStateException("Cycle through " + names[v] + ", path counts are not finite");
+        }
+
+        return Arrays.copyOf(order, tail);
+    }
+
+    // devices reachable from source, not following the outputs of stop
+    private boolean[] reachableFrom(int source, int stop) {
+        boolean[] seen = new boolean[names.length];
+        int[] stack = new int[names.length];
+        int top = 0;
+        seen[source] = true;
+        stack[top++] = source;
+        while(top > 0) {
+            int v = stack[--top];
+            if(v == stop)
+                continue;
+            for(int e = start[v]; e < start[v + 1]; e++) {
+                if(!seen[edges[e]]) {
+                    seen[edges[e]] = true;
+                    stack[top++] = edges[e];
+                }
+            }
+        }
+        return seen;
+    }
+
+    // devices with a path to target, walking the edges backwards in a CSR of the inputs built on the spot
+    private boolean[] reachesTarget(int target) {
+        int n = names.length;
+        int[] inStart = new int[n + 1];
+        for(int u : edges)
+            inStart[u + 1]++;
+        for(int v=0; v<n; v++)
+            inStart[v + 1] += inStart[v];
+
+        int[] inputs = new int[edges.length];
+        int[] fill = Arrays.copyOf(inStart, n);
+        for(int v=0; v<n; v++) {
+            for(int e = start[v]; e < start[v + 1]; e++)
+                inputs[fill[edges[e]]++] = v;
+        }
+
+        boolean[] seen = new boolean[n];
+        int[] stack = new int[n];
+        int top = 0;
+        seen[target] = true;
+        stack[top++] = target;
+        while(top > 0) {
+            int v = stack[--top];
+            for(int e = inStart[v]; e < inStart[v + 1]; e++) {
+                if(!seen[inputs[e]]) {
+                    seen[inputs[e]] = true;
+                    stack[top++] = inputs[e];
+                }
+            }
+        }
+        return seen;
+    }
+
+    // number of paths from source to target passing through every waypoint, 0 if any of them is unknown
+    public long countPaths(String source, String target, String... waypoints) {
+        int[] required = new int[waypoints.length];
+        for(int i=0; i<waypoints.length; i++)
+            required[i] = id(waypoints[i]);
+
+        int from = id(source), to = id(target);
+        if(from < 0 || to < 0 || Arrays.stream(required).anyMatch(id -> id < 0))
+            return 0;
+
+        return countPaths(from, to, required);
+    }
+
+    // ways[v * 2^w + mask] = paths from source to v that went through exactly the waypoints in mask
+    public long countPaths(int source, int target, int[] waypoints) {
+        if(waypoints.length > 20)
+            throw new IllegalArgumentException(waypoints.length + " waypoints is too many for a bitmask DP");
+
+        int masks = 1 << waypoints.length;
+        int[] bit = new int[names.length];
+        for(int i=0; i<waypoints.length; i++)
+            bit[waypoints[i]] |= 1 << i;
+
+        long[] ways = new long[names.length * masks];
+        ways[source * masks + bit[source]] = 1;
+
+        for(int v : topologicalOrder(source, target)) {
+            if(v == target)
+                continue;
+
+            int row = v * masks;
+            for(int mask=0; mask<masks; mask++) {
+                long count = ways[row + mask];
+                if(count == 0)
+                    continue;
+                for(int e = start[v]; e < start[v + 1]; e++) {
+                    int u = edges[e];
+                    int cell = u * masks + (mask | bit[u]);
+                    ways[cell] = Math.addExact(ways[cell], count);
+                }
+            }
+        }
+
+        return ways[target * masks + masks - 1];
+    }
+}
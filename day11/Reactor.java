@@ -1,28 +1,32 @@
 package day11;
 
+import java.io.IOException;
 import java.io.PrintStream;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.stream.Collectors;
 
+import common.MappedInput;
+import common.Runner;
+import common.Solver;
 import common.utils;
 
 
-public class Reactor {
+public class Reactor implements Solver<PathGraph> {
     private static PrintStream out = utils.initializeOutputStream();
-    private static HashMap<String, Long> memo = new HashMap<>();
+
+    // -Dday11.queries=<file> replays a script against one long lived PathCountIndex instead, one command a line:
+    //   ? source target [waypoint ...]    writes the number of paths to the output
+    //   + a b                             adds the wire a -> b
+    //   - a b                             removes it
+    // and the answer is the number of queries answered
+    static final String QUERIES = System.getProperty("day11.queries");
+    static final int MAX_TABLES = Integer.getInteger("day11.tables", 64);
 
     public static void main(String[] args) {
         try {
-            long startTime = utils.getCurrentTime();
-            
-            long ans = utils.readInputAndSolve(Reactor::solve);
-
-            long endTime = utils.getCurrentTime();
+            long ans = Runner.run(new Reactor(), out, args);
 
-            utils.printTimeStats(out, startTime, endTime);
             out.printf("Asnwer : %d\n", ans);
             System.out.println("Answer : " + ans);
         } catch (Exception e) {
@@ -31,56 +35,68 @@ public class Reactor {
         }  
     }
 
-    private static long solve(ArrayList<String> input) {
-        HashMap<String, ArrayList<String>> adj = new HashMap<>();
-        for(String line : input)
-        {
-            String[] parts = line.split(": ");
-            adj.put(parts[0], Arrays.stream(parts[1].split(" ")).collect(Collectors.toCollection(ArrayList::new)));
-        }
-        
-        HashSet<String> visited = new HashSet<>();
-        return dfs(adj, "svr", "out", visited, false, false);
+    @Override
+    public void setOutput(PrintStream stream) {
+        out = stream;
     }
 
-    private static long dfs(HashMap<String, ArrayList<String>> adj, String source, String target, 
-                            HashSet<String> visited, boolean hasDac, boolean hasFft) {
-        
-        if(visited.contains(source))
-            return 0;
-            
-        if(source.equals(target)) {
-            return (hasDac && hasFft) ? 1 : 0;
-        }
-        
-        if(!adj.containsKey(source))
-            return 0;
-        
-        if(source.equals("dac")) {
-            hasDac = true;
-        } 
-        if (source.equals("fft")) {
-            hasFft = true;
-        }
-        
-        String key = source + "," + hasDac + "," + hasFft;
-        if(memo.containsKey(key) && !visited.contains(source)) {
-            return memo.get(key);
+    @Override
+    public PathGraph parse(MappedInput input) {
+        return PathGraph.parse(input);
+    }
+
+    @Override
+    public long solve(PathGraph graph) {
+        if(QUERIES == null)
+            return graph.countPaths("svr", "out", "dac", "fft");
+
+        try {
+            return replay(PathCountIndex.of(graph, MAX_TABLES), MappedInput.open(QUERIES));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
-        
-        visited.add(source);
-        long count = 0;
-        
-        for(String v : adj.get(source)) {
-            count += dfs(adj, v, target, visited, hasDac, hasFft);
+    }
+
+    // blank lines are skipped, anything else that is not a well formed command stops the replay, as does a
+    // wire that would close a cycle, with the line it came from
+    static long replay(PathCountIndex index, MappedInput script) {
+        long answered = 0;
+        ArrayList<String> lines = script.lines();
+        for(int i=0; i<lines.size(); i++) {
+            String line = lines.get(i).trim();
+            if(line.isEmpty())
+                continue;
+
+            try {
+                answered += run(index, line.split("\\s+"));
+            } catch(IllegalArgumentException e) {
+                throw new IllegalArgumentException("Query script line " + (i + 1) + " \"" + line + "\" : " + e.getMessage(), e);
+            }
         }
-        
-        visited.remove(source);
-        
-        if(!visited.contains(source)) {
-            memo.put(key, count);
+        return answered;
+    }
+
+    // one command, returns 1 if it was a query
+    private static int run(PathCountIndex index, String[] parts) {
+        switch(parts[0]) {
+            case "?" -> {
+                if(parts.length < 3)
+                    throw new IllegalArgumentException("Expected \"? source target [waypoint ...]\"");
+                String[] waypoints = Arrays.copyOfRange(parts, 3, parts.length);
+                out.printf("%s -> %s %s : %d\n", parts[1], parts[2], Arrays.toString(waypoints),
+                    index.count(parts[1], parts[2], waypoints));
+                return 1;
+            }
+            case "+", "-" -> {
+                if(parts.length != 3)
+                    throw new IllegalArgumentException("Expected \"" + parts[0] + " a b\"");
+                if(parts[0].equals("+"))
+                    index.addEdge(parts[1], parts[2]);
+                else
+                    index.removeEdge(parts[1], parts[2]);
+                return 0;
+            }
+            default -> throw new IllegalArgumentException("Unknown command " + parts[0]);
         }
-        
-        return count;
     }
-}
\ No newline at end of file
+}
@@ -1,32 +1,21 @@
 package day2;
 
+import common.MappedInput;
+import common.Runner;
+import common.Solver;
+import common.Trace;
 import common.utils;
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.PrintStream;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.concurrent.atomic.AtomicLong;
 
-public class GiftShop
+public class GiftShop implements Solver<ArrayList<ArrayList<Long>>>
 {
     public static PrintStream out = utils.initializeOutputStream();
     public static void main(String[] args)
     {
-        try(BufferedReader br = new BufferedReader(new FileReader(utils.INPUT_FILENAME))){
-            ArrayList<ArrayList<Long>> list = new ArrayList<>(); 
-            String input = br.readLine();
-            
-            Arrays.stream(input.split(","))
-                .forEach((element) -> {
-                    String[] ranges = element.split("-");
-                    ArrayList<Long> temp = new ArrayList<>();
-                    temp.add(Long.parseLong(ranges[0]));
-                    temp.add(Long.parseLong(ranges[1]));
-                    list.add(temp);
-                });
-
-            long sum = sumOfInvalidIDs(list);
+        try {
+            long sum = Runner.run(new GiftShop(), out, args);
             System.out.printf("\nAnswer : %d\n", sum);
             
         } catch(Exception e) {
@@ -35,24 +24,48 @@ public class GiftShop
        
     }
 
+    @Override
+    public void setOutput(PrintStream stream) {
+        out = stream;
+    }
+
+    // "11-22,95-115,..." -> [[11, 22], [95, 115], ...]
+    @Override
+    public ArrayList<ArrayList<Long>> parse(MappedInput input) {
+        ArrayList<ArrayList<Long>> list = new ArrayList<>();
+        do {
+            while(input.hasNextField()) {
+                ArrayList<Long> temp = new ArrayList<>();
+                temp.add(input.nextUnsignedLong());
+                temp.add(input.nextUnsignedLong());
+                list.add(temp);
+            }
+        } while(input.nextLine());
+
+        return list;
+    }
+
+    @Override
+    public long solve(ArrayList<ArrayList<Long>> list) {
+        return sumOfInvalidIDs(list);
+    }
+
     private static long sumOfInvalidIDs(ArrayList<ArrayList<Long>> list) {
         AtomicLong sum = new AtomicLong(0);
         list.forEach(range -> {
             long start = range.get(0);
             long end = range.get(1);
-            for(long i = start;i<=end;i++)
-            {
-                if(isInvalid(i))
-                {
-                    out.printf("Invalid Num : %d\n", i);
-                    sum.addAndGet(i);
-                }
-            }
+
+            // closed form per range, see RepeatedIds, the ids themselves are only generated when tracing
+            if(Trace.TRACE)
+                RepeatedIds.forEach(start, end, i -> Trace.printf(out, "Invalid Num : %d\n", i));
+
+            sum.addAndGet(RepeatedIds.sumInRange(start, end));
         });
         return sum.get();
     }
 
-    private static boolean isInvalid(long num) {
+    static boolean isInvalid(long num) {
         String s = Long.toString(num);
         
         // for each possible prefix, check if the string is a repetition of this prefix ;)
@@ -0,0 +1,130 @@
+package day2;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+// Invalid ids are numbers whose digits are one block repeated at least twice, e.g. 1212 or 111.
+// An L digit number made of a p digit block b repeated L/p times is b * (1 + 10^p + 10^2p + ...),
+// so for a fixed (L, p) the invalid ids in a range are an arithmetic series over b and can be
+// summed in O(1). Numbers like 1111 show up under several periods (1 and 2), the overlap is removed
+// by inclusion-exclusion over the prime factors of L: the ids with period p are exactly the ids with
+// period L/q for some prime q | L, and two such sets intersect in the set for their gcd.
+public class RepeatedIds {
+    private static final long[] POW10 = new long[19];
+    static {
+        POW10[0] = 1;
+        for(int i=1; i<POW10.length; i++)
+            POW10[i] = POW10[i-1] * 10;
+    }
+
+    public static long sumInRange(long start, long end) {
+        long sum = 0;
+        for(int length = digits(start); length <= digits(end); length++) {
+            long lo = Math.max(start, POW10[length - 1]);
+            long hi = Math.min(end, maxWithDigits(length));
+            if(lo <= hi)
+                sum = Math.addExact(sum, sumWithLength(length, lo, hi));
+        }
+        return sum;
+    }
+
+    // sum of the invalid ids in [lo, hi], all of which have exactly `length` digits
+    private static long sumWithLength(int length, long lo, long hi) {
+        int[] primes = primeFactors(length);
+        long sum = 0;
+
+        for(int subset = 1; subset < (1 << primes.length); subset++) {
+            int period = length;
+            for(int i=0; i<primes.length; i++) {
+                if((subset & (1 << i)) != 0)
+                    period /= primes[i];
+            }
+
+            long part = sumWithPeriod(length, period, lo, hi);
+            sum = Integer.bitCount(subset) % 2 == 1 ? Math.addExact(sum, part) : Math.subtractExact(sum, part);
+        }
+        return sum;
+    }
+
+    // sum of the numbers in [lo, hi] that are some `period` digit block repeated length/period times
+    private static long sumWithPeriod(int length, int period, long lo, long hi) {
+        long multiplier = repeater(length, period);
+
+        long first = Math.max(POW10[period - 1], ceilDiv(lo, multiplier));
+        long last = Math.min(POW10[period] - 1, hi / multiplier);
+        if(first > last)
+            return 0;
+
+        // first + ... + last, halving whichever factor is even so the product can't overflow early
+        long count = last - first + 1;
+        long blocks = count % 2 == 0
+            ? Math.multiplyExact(count / 2, first + last)
+            : Math.multiplyExact(count, (first + last) / 2);
+
+        return Math.multiplyExact(blocks, multiplier);
+    }
+
+    // calls action for every invalid id in [start, end], each one exactly once and in no particular order
+    public static void forEach(long start, long end, LongConsumer action) {
+        for(int length = digits(start); length <= digits(end); length++) {
+            long lo = Math.max(start, POW10[length - 1]);
+            long hi = Math.min(end, maxWithDigits(length));
+            if(lo > hi)
+                continue;
+
+            for(int period = 1; period < length; period++) {
+                if(length % period != 0)
+                    continue;
+
+                long multiplier = repeater(length, period);
+                long first = Math.max(POW10[period - 1], ceilDiv(lo, multiplier));
+                long last = Math.min(POW10[period] - 1, hi / multiplier);
+
+                // a block that is itself a repetition produces an id that has a smaller period too,
+                // only the smallest period reports it
+                for(long block = first; block <= last; block++) {
+                    if(!GiftShop.isInvalid(block))
+                        action.accept(block * multiplier);
+                }
+            }
+        }
+    }
+
+    // 1 + 10^period + 10^(2*period) + ... with length/period terms
+    private static long repeater(int length, int period) {
+        long multiplier = 0;
+        for(int shift = 0; shift < length; shift += period)
+            multiplier += POW10[shift];
+        return multiplier;
+    }
+
+    private static long maxWithDigits(int length) {
+        return length >= 19 ? Long.MAX_VALUE : POW10[length] - 1;
+    }
+
+    private static int digits(long n) {
+        int length = 1;
+        while(length < 19 && n >= POW10[length])
+            length++;
+        return length;
+    }
+
+    private static long ceilDiv(long a, long b) {
+        return -Math.floorDiv(-a, b);
+    }
+
+    private static int[] primeFactors(int n) {
+        int[] primes = new int[8];
+        int count = 0;
+        for(int p = 2; p * p <= n; p++) {
+            if(n % p == 0) {
+                primes[count++] = p;
+                while(n % p == 0)
+                    n /= p;
+            }
+        }
+        if(n > 1)
+            primes[count++] = n;
+        return Arrays.copyOf(primes, count);
+    }
+}
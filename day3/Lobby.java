@@ -1,28 +1,36 @@
 package day3;
 
-import java.io.BufferedReader;
 import java.io.PrintStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import common.MappedInput;
+import common.Runner;
+import common.Solver;
+import common.StreamingSolver;
 import common.utils;
 
-public class Lobby {
+public class Lobby implements Solver<Lobby.Banks>, StreamingSolver {
     public static PrintStream out = utils.initializeOutputStream();
 
-    public static void main(String[] args) {
-        try {
-            BufferedReader reader = utils.initilaizeReader();
+    // number of batteries turned on in every bank, 2 for part 1 and 12 for part 2
+    static final int DIGITS = Integer.getInteger("day3.digits", 12);
 
-            long startTime = utils.getCurrentTime();
-            String line = reader.readLine();
-            long ans = 0;
-            while(line != null) {
-                // ans += findMaxJoltage_2digits(line);
-                ans += findMaxJoltage_12digits(line);
+    // one bank per line, lines[i] is the offset of line i with input.size() as the last entry
+    record Banks(MappedInput input, long[] lines) {}
 
-                line = reader.readLine();
-            }
+    // solve() returns this when the sum does not fit in a long, which takes more than MAX_LONG_DIGITS digits a
+    // bank. The exact sum is then only in answers()
+    static final long NOT_A_LONG = Long.MIN_VALUE;
 
-            long endTime = utils.getCurrentTime();
-            out.printf("Total time elapsed : %d ms\n", endTime - startTime);
+    // exact sum of the last run, kept when DIGITS is past MAX_LONG_DIGITS
+    private BigInteger bigAnswer;
+
+    public static void main(String[] args) {
+        try {
+            String ans = Runner.runStats(new Lobby(), out, args).answers.getFirst();
 
             System.out.println("Answer : " + ans);
         } catch (Exception e) {
@@ -30,53 +38,144 @@ public class Lobby {
         }
     }
 
-    private static int findMaxJoltage_2digits(String line) {
-        int length = line.length();
+    @Override
+    public void setOutput(PrintStream stream) {
+        out = stream;
+    }
 
-        int max_so_far = -1;
-        int ans = 0;
-        for(int i=0; i<length; i++) {
-            int digit = line.charAt(i) - '0';
+    @Override
+    public Banks parse(MappedInput input) {
+        return new Banks(input, input.lineOffsets());
+    }
+
+    @Override
+    public long solve(Banks banks) {
+        if(DIGITS > MAX_LONG_DIGITS) {
+            BigInteger ans = lineRange(banks)
+                .mapToObj(i -> withLine(banks, i, (line, len) -> maxSubsequenceBig(line, 0, len, DIGITS)))
+                .reduce(BigInteger.ZERO, BigInteger::add);
+            return bigResult(ans);
+        }
 
-            if(max_so_far == -1) {
-                max_so_far = digit;
-                continue;
+        bigAnswer = null;
+        return lineRange(banks)
+            .mapToLong(i -> withLine(banks, i, (line, len) -> maxSubsequence(line, 0, len, DIGITS)))
+            .reduce(0, Math::addExact);
+    }
+
+    // banks off a stream one at a time, the selection runs in place in the stream's buffer
+    @Override
+    public Sink open() {
+        return new Sink() {
+            private long sum = 0;
+            private BigInteger big = BigInteger.ZERO;
+
+            @Override
+            public void accept(byte[] line, int from, int to) {
+                if(from == to)
+                    return;
+                if(DIGITS > MAX_LONG_DIGITS)
+                    big = big.add(maxSubsequenceBig(line, from, to, DIGITS));
+                else
+                    sum = Math.addExact(sum, maxSubsequence(line, from, to, DIGITS));
             }
 
-            int joltage = max_so_far * 10 + digit;
-            ans = Math.max(ans, joltage);
+            @Override
+            public long finish() {
+                if(DIGITS > MAX_LONG_DIGITS)
+                    return bigResult(big);
+                bigAnswer = null;
+                return sum;
+            }
 
-            max_so_far = Math.max(max_so_far, digit);
-        }
+            @Override
+            public List<String> answers(long finished) {
+                return Lobby.this.answers(finished);
+            }
+        };
+    }
 
-        return ans;
+    private long bigResult(BigInteger sum) {
+        bigAnswer = sum;
+        out.printf("Answer : %s\n", sum);
+        return sum.bitLength() < Long.SIZE ? sum.longValue() : NOT_A_LONG;
     }
 
-    private static long findMaxJoltage_12digits(String line) {
-        // pick the best digit for each position starting from left, 
-        // while keeping enough remaining digits on the right to still make a 12 digit number
-        long ans = 0;
-        int lastDigitPos = -1;
-        for(int i=0; i<12; i++) {
-            int bestDigitPos = findBestDigitPos(line, lastDigitPos+1, line.length() - 12 + i);
-            int bestDigit = line.charAt(bestDigitPos) - '0';
-            ans = ans * 10 + bestDigit;
-            lastDigitPos = bestDigitPos;
+    @Override
+    public List<String> answers(long solved) {
+        return List.of(bigAnswer != null ? bigAnswer.toString() : Long.toString(solved));
+    }
+
+    // the banks are independent, so they are spread over all cores. Blank lines are skipped
+    private static IntStream lineRange(Banks banks) {
+        long[] lines = banks.lines();
+        MappedInput input = banks.input();
+        return IntStream.range(0, lines.length - 1)
+            .parallel()
+            .filter(i -> input.byteAt(lines[i]) != '\n' && input.byteAt(lines[i]) != '\r');
+    }
+
+    private interface LineFunction<R> {
+        R apply(byte[] line, int len);
+    }
+
+    private static final ThreadLocal<byte[]> BUFFER = ThreadLocal.withInitial(() -> new byte[256]);
+
+    // copies line i into this thread's buffer without the line break, reading by absolute offset so
+    // the lines can be read concurrently
+    private static <R> R withLine(Banks banks, int i, LineFunction<R> function) {
+        long from = banks.lines()[i];
+        int len = (int) (banks.lines()[i + 1] - from);
+
+        byte[] line = BUFFER.get();
+        if(line.length < len) {
+            line = new byte[Integer.highestOneBit(len) << 1];
+            BUFFER.set(line);
         }
 
+        banks.input().copy(from, line, 0, len);
+        while(len > 0 && (line[len - 1] == '\n' || line[len - 1] == '\r'))
+            len--;
+
+        return function.apply(line, len);
+    }
+
+    // anything longer does not fit in a long
+    static final int MAX_LONG_DIGITS = 18;
+
+    // largest number made of k digits of line[from, to) kept in order, as a long (k <= 18)
+    static long maxSubsequence(byte[] line, int from, int to, int k) {
+        if(k > MAX_LONG_DIGITS)
+            throw new IllegalArgumentException(k + " digits do not fit in a long, use maxSubsequenceBig");
+
+        selectMax(line, from, to, k);
+
+        long ans = 0;
+        for(int i = from; i < from + k; i++)
+            ans = ans * 10 + (line[i] - '0');
         return ans;
     }
 
-    private static int findBestDigitPos(String line, int start, int end) {
-        int pos = -1, best = 0;
-        for(int i=start; i<=end; i++) {
-            int cur = line.charAt(i) - '0';
-            if(cur > best) {
-                best = cur;
-                pos = i;
-            }
-        }
+    static BigInteger maxSubsequenceBig(byte[] line, int from, int to, int k) {
+        selectMax(line, from, to, k);
+        return new BigInteger(new String(line, from, k, StandardCharsets.US_ASCII));
+    }
 
-        return pos;
+    // Greedy monotonic stack: a digit pops every smaller digit before it as long as enough digits are left
+    // on the right to still make k of them, so each digit is pushed and popped at most once, O(to - from)
+    // for any k. The stack never grows past the digits read so far, so it is kept in place in
+    // line[from, from+k), which holds the answer afterwards.
+    static void selectMax(byte[] line, int from, int to, int k) {
+        if(to - from < k)
+            throw new IllegalArgumentException("Bank of " + (to - from) + " batteries has no " + k + " to turn on");
+
+        int top = from;
+        for(int i = from; i < to; i++) {
+            byte digit = line[i];
+            while(top > from && line[top - 1] < digit && (top - 1 - from) + (to - i) >= k)
+                top--;
+            if(top - from < k)
+                line[top++] = digit;
+        }
     }
 }
@@ -1,36 +1,24 @@
 package day4;
 
+import common.MappedInput;
+import common.Runner;
+import common.Solver;
 import common.utils;
 
 import java.io.PrintStream;
-import java.util.ArrayDeque;
-import java.util.ArrayList;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
 
-public class PrintingDepartment {
+public class PrintingDepartment implements Solver<Warehouse> {
     public static PrintStream out = utils.initializeOutputStream();
-    public static void main(String[] args) {
-        try {
-            long startTime = utils.getCurrentTime();
-            
-            ArrayList<String> lines = utils.getInputLines();
-            
-            int n = lines.size(), m = lines.getFirst().length();
-            
-            int ans = 0;
-            ArrayDeque<int[]> queue = new ArrayDeque<>();
 
-            long processStartTime = utils.getCurrentTime();
-            for(int i=0; i<n; i++) {
-                for(int j=0; j<m; j++) {
-                    if(isRemovable(lines, i, j, n, m))
-                        queue.add(new int[]{i, j});
-                }
-            }
+    private static final String MODE = System.getProperty("day4.mode", "flat");
+    private static final long MAX_FLAT_GRID = 1L << 30;
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
 
-            ans = recursiveRemove(queue, lines, n, m);
-            long endTime = utils.getCurrentTime();
-            
-            utils.printTimeStats(out, processStartTime, startTime, endTime);
+    public static void main(String[] args) {
+        try {
+            int ans = (int) Runner.run(new PrintingDepartment(), out, args);
             
             System.out.println("Answer : " + ans);
             out.printf("Answer : %d", ans);
@@ -39,61 +27,42 @@ public class PrintingDepartment {
         }
     }
 
-    private static int countAdjacentRolls(ArrayList<String> lines, int i, int j, int n, int m) {
-        int count = 0;
-        
-        for(int[] dir : utils.DIRECTIONS_8) {
-            int new_i = i + dir[0], new_j = j + dir[1];
-            if (utils.isInGrid(new_i, new_j, n, m)) {
-                if (lines.get(new_i).charAt(new_j) == '@') {
-                    count++;
-                }
-            }
-        }
-
-        return count;
+    @Override
+    public void setOutput(PrintStream stream) {
+        out = stream;
     }
 
-    private static boolean isRemovable(ArrayList<String> lines, int i, int j, int n, int m) {
-        if(lines.get(i).charAt(j) == '@') {
-            int count = countAdjacentRolls(lines, i, j, n, m); 
-            if(count < 4) {
-                return true;
-            }
-        }
-
-        return false;
+    // the flat grid tops out at ~2^31 cells, past that (or with -Dday4.mode=tiled) the banded parallel one is used
+    @Override
+    public Warehouse parse(MappedInput input) {
+        if (MODE.equals("tiled") || input.size() > MAX_FLAT_GRID)
+            return parseTiled(input);
+        return RollGrid.parse(input);
     }
 
-    private static int recursiveRemove(ArrayDeque<int[]> queue, ArrayList<String> lines, int n, int m) {
-        int ans = 0;
-
-        while(!queue.isEmpty()) {
-            int[] first = queue.pollFirst();
-            int i = first[0], j = first[1];
-
-            // this is not a valid roll and cant be removed
-            if(!isRemovable(lines, i, j, n, m)) 
-                continue;
+    // TiledRollGrid is the only class that needs the incubating Vector API, so it is looked up by name and
+    // everything else compiles and runs without --add-modules jdk.incubator.vector
+    private static Warehouse parseTiled(MappedInput input) {
+        if (ModuleLayer.boot().findModule(VECTOR_MODULE).isEmpty())
+            throw new IllegalStateException("The tiled grid needs --add-modules " + VECTOR_MODULE);
 
-            ans++;
-
-            // Replace character at position j with an 'x'
-            String currentLine = lines.get(i);
-            String newLine = currentLine.substring(0, j) + 'x' + currentLine.substring(j + 1);
-            lines.set(i, newLine);
-
-            // mark all it's neighbours as possibly removable
-            for(int[] dir : utils.DIRECTIONS_8) {
-                int new_i = i + dir[0], new_j = j + dir[1];
-                if (utils.isInGrid(new_i, new_j, n, m)) {
-                    if (lines.get(new_i).charAt(new_j) == '@') {
-                        queue.add(new int[]{new_i, new_j});
-                    }
-                }
-            }
+        try {
+            Method parse = Class.forName("day4.TiledRollGrid").getMethod("parse", MappedInput.class);
+            return (Warehouse) parse.invoke(null, input);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof RuntimeException cause)
+                throw cause;
+            if (e.getCause() instanceof Error cause)
+                throw cause;
+            throw new IllegalStateException(e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("The tiled grid is not on the class path", e);
         }
+    }
 
-        return ans;
+    // rolls with fewer than 4 neighbours can be taken out, which can free up their neighbours, and so on
+    @Override
+    public long solve(Warehouse grid) {
+        return grid.removeAll();
     }
 }
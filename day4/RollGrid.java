@@ -0,0 +1,134 @@
+package day4;
+
+import common.MappedInput;
+
+// The warehouse as one flat byte[] with a one cell border of empty space around it, so the 8 neighbours
+// of any cell are fixed offsets and need no bounds checks. neighbours[] holds the number of rolls around
+// each roll and is decremented as rolls are removed, a roll is queued the moment it drops below 4, and
+// queued rolls are marked so nothing is ever queued twice.
+public class RollGrid implements Warehouse {
+    private static final byte EMPTY = 0, ROLL = 1, QUEUED = 2;
+
+    private final int rows;
+    private final int cols;
+    private final int width;
+    private final int[] offsets;
+
+    private final byte[] cells;
+    private final byte[] neighbours;
+    private int rolls = 0;
+
+    public RollGrid(int rows, int cols) {
+        this.rows = rows;
+        this.cols = cols;
+        this.width = cols + 2;
+        this.offsets = new int[] { -width - 1, -width, -width + 1, -1, 1, width - 1, width, width + 1 };
+
+        cells = new byte[(rows + 2) * width];
+        neighbours = new byte[cells.length];
+    }
+
+    // '@' is a roll, anything else is empty
+    public static RollGrid parse(MappedInput input) {
+        long[] lines = input.lineOffsets();
+        int rows = lines.length - 1;
+        while(rows > 0 && lines[rows] - lines[rows - 1] <= 1)
+            rows--;
+
+        int cols = 0;
+        for(int i=0; i<rows; i++) {
+            input.seek(lines[i]);
+            cols = Math.max(cols, (int) (input.lineEnd() - lines[i]));
+        }
+
+        RollGrid grid = new RollGrid(rows, cols);
+        for(int i=0; i<rows; i++) {
+            input.seek(lines[i]);
+            long end = input.lineEnd();
+            int cell = grid.index(i, 0);
+            for(long pos = lines[i]; pos < end; pos++, cell++) {
+                if(input.byteAt(pos) == '@') {
+                    grid.cells[cell] = ROLL;
+                    grid.rolls++;
+                }
+            }
+        }
+
+        return grid;
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public int cols() {
+        return cols;
+    }
+
+    public int rolls() {
+        return rolls;
+    }
+
+    private int index(int i, int j) {
+        return (i + 1) * width + (j + 1);
+    }
+
+    // rolls with fewer than 4 rolls around them right now
+    public int countRemovable() {
+        int count = 0;
+        for(int i=0; i<rows; i++) {
+            for(int cell = index(i, 0), end = cell + cols; cell < end; cell++) {
+                if(cells[cell] != EMPTY && countAround(cell) < 4)
+                    count++;
+            }
+        }
+        return count;
+    }
+
+    // keeps removing accessible rolls until none are left, returns how many went. Modifies the grid.
+    @Override
+    public long removeAll() {
+        int[] queue = new int[rolls];
+        int head = 0, tail = 0;
+
+        for(int i=0; i<rows; i++) {
+            for(int cell = index(i, 0), end = cell + cols; cell < end; cell++) {
+                if(cells[cell] == EMPTY)
+                    continue;
+
+                int count = countAround(cell);
+                neighbours[cell] = (byte) count;
+                if(count < 4) {
+                    cells[cell] = QUEUED;
+                    queue[tail++] = cell;
+                }
+            }
+        }
+
+        while(head < tail) {
+            int cell = queue[head++];
+            cells[cell] = EMPTY;
+
+            for(int offset : offsets) {
+                int next = cell + offset;
+                // queued rolls are going anyway, their counts don't matter any more
+                if(cells[next] == ROLL && --neighbours[next] < 4) {
+                    cells[next] = QUEUED;
+                    queue[tail++] = next;
+                }
+            }
+        }
+
+        rolls -= tail;
+        return tail;
+    }
+
+    private int countAround(int cell) {
+        int count = 0;
+        for(int offset : offsets) {
+            if(cells[cell + offset] != EMPTY)
+                count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,237 @@
+package day4;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import common.MappedInput;
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+// RollGrid for grids too big for one array (100k x 100k and up). Rows are separate byte[]s padded with
+// an empty border plus one vector of slack, and the grid is split into bands of rows that are worked on
+// in parallel on the common ForkJoin pool:
+//  1. neighbour counts come from 8 shifted vector loads per row (ByteVector), the rolls under 4 seed
+//     each band's worklist.
+//  2. every band peels its own rolls. Removing a roll on a band's first or last row sends a decrement
+//     to the neighbouring band instead of touching its rows, so bands never write outside themselves.
+//  3. the decrements are handed over between rounds and peeling repeats until no band gets any.
+// The rolls that survive don't depend on the order of removals, so this gives the same answer as RollGrid.
+//
+// Needs --add-modules jdk.incubator.vector at compile and run time.
+public class TiledRollGrid implements Warehouse {
+    private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED;
+    private static final byte EMPTY = 0, ROLL = 1, QUEUED = 2;
+
+    private final int rows;
+    private final int cols;
+    // row 0 and row rows+1 are all empty, grid row i lives in cells[i+1], column j at index j+1
+    private final byte[][] cells;
+    private final byte[][] neighbours;
+
+    private final Band[] bands;
+
+    public TiledRollGrid(int rows, int cols, int bandRows) {
+        this.rows = rows;
+        this.cols = cols;
+
+        int width = cols + 2 + SPECIES.length();
+        cells = new byte[rows + 2][];
+        neighbours = new byte[rows + 2][];
+        for(int r=0; r<rows+2; r++) {
+            cells[r] = new byte[width];
+            neighbours[r] = new byte[width];
+        }
+
+        int count = Math.max(1, (rows + bandRows - 1) / bandRows);
+        bands = new Band[count];
+        for(int b=0; b<count; b++)
+            bands[b] = new Band(1 + b * bandRows, Math.min(rows + 1, 1 + (b + 1) * bandRows));
+    }
+
+    // bands small enough that every core gets a few, but not so small that the halo dominates
+    public static int defaultBandRows(int rows) {
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        return Math.max(64, rows / (4 * parallelism));
+    }
+
+    public static TiledRollGrid parse(MappedInput input) {
+        long[] lines = input.lineOffsets();
+        int rows = lines.length - 1;
+        while(rows > 0 && lines[rows] - lines[rows - 1] <= 1)
+            rows--;
+
+        long longest = 0;
+        for(int i=0; i<rows; i++)
+            longest = Math.max(longest, lines[i + 1] - lines[i]);
+        int cols = Math.toIntExact(longest);
+
+        TiledRollGrid grid = new TiledRollGrid(rows, cols, defaultBandRows(rows));
+        IntStream.range(0, rows).parallel().forEach(i -> {
+            byte[] row = grid.cells[i + 1];
+            int length = (int) (lines[i + 1] - lines[i]);
+            input.copy(lines[i], row, 1, length);
+            for(int j=1; j<=length; j++)
+                row[j] = row[j] == '@' ? ROLL : EMPTY;
+        });
+
+        return grid;
+    }
+
+    public void set(int i, int j) {
+        cells[i + 1][j + 1] = ROLL;
+    }
+
+    @Override
+    public long removeAll() {
+        // phase 1: counts only read cells[], marking the queued rolls waits until every band is done
+        Arrays.stream(bands).parallel().forEach(Band::countNeighbours);
+        Arrays.stream(bands).parallel().forEach(Band::markQueued);
+
+        boolean pending = true;
+        while(pending) {
+            Arrays.stream(bands).parallel().forEach(Band::peel);
+
+            pending = false;
+            for(int b=0; b<bands.length; b++) {
+                Band band = bands[b];
+                if(b > 0)
+                    band.inbox.addAll(bands[b - 1].toNext);
+                if(b + 1 < bands.length)
+                    band.inbox.addAll(bands[b + 1].toPrevious);
+                pending |= band.inbox.size > 0;
+            }
+            for(Band band : bands) {
+                band.toPrevious.clear();
+                band.toNext.clear();
+            }
+        }
+
+        long removed = 0;
+        for(Band band : bands)
+            removed += band.removed;
+        return removed;
+    }
+
+    private static long pack(int r, int c) {
+        return (long) r << 32 | c;
+    }
+
+    // rows [first, last) in padded coordinates
+    private class Band {
+        final int first;
+        final int last;
+
+        final LongStack worklist = new LongStack();
+        final LongStack inbox = new LongStack();
+        final LongStack toPrevious = new LongStack();
+        final LongStack toNext = new LongStack();
+        long removed = 0;
+
+        Band(int first, int last) {
+            this.first = first;
+            this.last = last;
+        }
+
+        void countNeighbours() {
+            int step = SPECIES.length();
+            for(int r=first; r<last; r++) {
+                byte[] up = cells[r - 1], mid = cells[r], down = cells[r + 1];
+                byte[] count = neighbours[r];
+
+                for(int c=1; c<=cols; c+=step) {
+                    ByteVector sum = ByteVector.fromArray(SPECIES, up, c - 1)
+                        .add(ByteVector.fromArray(SPECIES, up, c))
+                        .add(ByteVector.fromArray(SPECIES, up, c + 1))
+                        .add(ByteVector.fromArray(SPECIES, mid, c - 1))
+                        .add(ByteVector.fromArray(SPECIES, mid, c + 1))
+                        .add(ByteVector.fromArray(SPECIES, down, c - 1))
+                        .add(ByteVector.fromArray(SPECIES, down, c))
+                        .add(ByteVector.fromArray(SPECIES, down, c + 1));
+                    sum.intoArray(count, c);
+
+                    VectorMask<Byte> removable = ByteVector.fromArray(SPECIES, mid, c)
+                        .compare(VectorOperators.NE, EMPTY)
+                        .and(sum.compare(VectorOperators.LT, (byte) 4));
+
+                    // at most 64 byte lanes, so the mask fits in a long. The padding past cols is always empty
+                    for(long lanes = removable.toLong(); lanes != 0; lanes &= lanes - 1)
+                        worklist.push(pack(r, c + Long.numberOfTrailingZeros(lanes)));
+                }
+            }
+        }
+
+        void markQueued() {
+            for(int k=0; k<worklist.size; k++) {
+                long cell = worklist.data[k];
+                cells[(int) (cell >>> 32)][(int) cell] = QUEUED;
+            }
+        }
+
+        void peel() {
+            while(inbox.size > 0) {
+                long cell = inbox.pop();
+                decrement((int) (cell >>> 32), (int) cell);
+            }
+
+            while(worklist.size > 0) {
+                long cell = worklist.pop();
+                int r = (int) (cell >>> 32), c = (int) cell;
+                cells[r][c] = EMPTY;
+                removed++;
+
+                for(int dr=-1; dr<=1; dr++) {
+                    int nr = r + dr;
+                    for(int dc=-1; dc<=1; dc++) {
+                        if(dr == 0 && dc == 0)
+                            continue;
+
+                        if(nr < first) {
+                            if(nr >= 1)
+                                toPrevious.push(pack(nr, c + dc));
+                        } else if(nr >= last) {
+                            if(nr <= rows)
+                                toNext.push(pack(nr, c + dc));
+                        } else {
+                            decrement(nr, c + dc);
+                        }
+                    }
+                }
+            }
+        }
+
+        // a neighbour of (r, c) went away, (r, c) is in this band
+        private void decrement(int r, int c) {
+            // queued rolls are going anyway and empty cells have nothing to count
+            if(cells[r][c] == ROLL && --neighbours[r][c] < 4) {
+                cells[r][c] = QUEUED;
+                worklist.push(pack(r, c));
+            }
+        }
+    }
+
+    private static class LongStack {
+        long[] data = new long[16];
+        int size = 0;
+
+        void push(long value) {
+            if(size == data.length)
+                data = Arrays.copyOf(data, size * 2);
+            data[size++] = value;
+        }
+
+        long pop() {
+            return data[--size];
+        }
+
+        void addAll(LongStack other) {
+            for(int k=0; k<other.size; k++)
+                push(other.data[k]);
+        }
+
+        void clear() {
+            size = 0;
+        }
+    }
+}
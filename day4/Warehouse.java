@@ -0,0 +1,7 @@
+package day4;
+
+// a grid of paper rolls that PrintingDepartment can empty out, see RollGrid and TiledRollGrid
+public interface Warehouse {
+    // removes every roll that can be reached with fewer than 4 neighbours, repeatedly, returns how many went
+    long removeAll();
+}
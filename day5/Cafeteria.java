@@ -1,53 +1,38 @@
 package day5;
 
-import java.io.BufferedReader;
 import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.List;
 import java.util.TreeSet;
 
+import common.LineCursor;
+import common.MappedInput;
+import common.Runner;
+import common.Solver;
+import common.StreamingSolver;
 import common.utils;
 
-public class Cafeteria {
+public class Cafeteria implements Solver<Cafeteria.Inventory>, StreamingSolver {
     public static PrintStream out = utils.initializeOutputStream();
 
-    private static TreeSet<long[]> freshRange = new TreeSet<>((a, b) -> {
+    static TreeSet<long[]> freshRange = new TreeSet<>((a, b) -> {
         if (a[0] != b[0])
             return Long.compare(a[0], b[0]);
         return Long.compare(a[1], b[1]);
     });
 
-    public static void main(String[] args) {
-        try {
-            BufferedReader reader = utils.initilaizeReader();
+    // frozen copy of freshRange, rebuilt every time the ranges are merged
+    static IntervalIndex freshIndex = IntervalIndex.of(freshRange);
 
-            long startTime = utils.getCurrentTime();
+    // fresh ranges come first, then a blank line, then the ingredient ids
+    public record Inventory(ArrayList<long[]> ranges, long[] ingredients) {}
 
-            String line = reader.readLine();
-            boolean isRange = true;
-            long ans = 0;
-            while (line != null) {
-                if (line.isEmpty()) {
-                    isRange = false;
-                    mergeRanges();
-                    // printTree();
-                    line = reader.readLine();
-                    continue;
-                }
-
-                if (isRange) {
-                    String[] parts = line.split("-");
-                    long start = Long.parseLong(parts[0]), end = Long.parseLong(parts[1]);
-                    addRange(start, end);
-                } else {
-                    long ingredient = Long.parseLong(line);
-                    if (isInRange(ingredient))
-                        ans++;
-                }
-                line = reader.readLine();
-            }
-            long endTime = utils.getCurrentTime();
+    public static void main(String[] args) {
+        try {
+            long ans = Runner.run(new Cafeteria(), out, args);
 
-            utils.printTimeStats(out, startTime, endTime);
             out.printf("Answer Part 1: %d\n", ans);
             out.printf("Answer Part 2: %d\n", countAllFresh());
         } catch (Exception e) {
@@ -56,25 +41,109 @@ public class Cafeteria {
         }
     }
 
-    private static void addRange(long start, long end) {
-        freshRange.add(new long[] { start, end });
+    @Override
+    public void setOutput(PrintStream stream) {
+        out = stream;
     }
 
-    private static boolean isInRange(long ing) {
-        Iterator<long[]> itr = freshRange.iterator();
+    @Override
+    public Inventory parse(MappedInput input) {
+        ArrayList<long[]> ranges = new ArrayList<>();
+        long[] ingredients = new long[1024];
+        int count = 0;
 
-        while (itr.hasNext()) {
-            long[] range = itr.next();
+        boolean isRange = true;
+        do {
+            if (input.isBlankLine()) {
+                isRange = false;
+                continue;
+            }
 
-            long start = range[0], end = range[1];
-            if (start <= ing && ing <= end)
-                return true;
+            if (isRange) {
+                long start = input.nextUnsignedLong(), end = input.nextUnsignedLong();
+                ranges.add(new long[] { start, end });
+            } else {
+                if (count == ingredients.length)
+                    ingredients = Arrays.copyOf(ingredients, count * 2);
+                ingredients[count++] = input.nextUnsignedLong();
+            }
+        } while (input.nextLine());
+
+        return new Inventory(ranges, Arrays.copyOf(ingredients, count));
+    }
+
+    @Override
+    public long solve(Inventory inventory) {
+        freshRange.clear();
+        for (long[] range : inventory.ranges())
+            addRange(range[0], range[1]);
+
+        mergeRanges();
+        // printTree();
+
+        long ans = 0;
+        for (long ingredient : inventory.ingredients()) {
+            if (isInRange(ingredient))
+                ans++;
         }
 
-        return false;
+        return ans;
+    }
+
+    // part 2 comes from the ranges solve() merged
+    @Override
+    public List<String> answers(long solved) {
+        return List.of(Long.toString(solved), Long.toString(countAllFresh()));
+    }
+
+    // The ranges are needed before the first check, so they are collected and merged as usual, but the
+    // ingredient ids after the blank line are checked as they stream past and never stored
+    @Override
+    public Sink open() {
+        freshRange.clear();
+        LineCursor cursor = new LineCursor();
+        return new Sink() {
+            private boolean isRange = true;
+            private long ans = 0;
+
+            @Override
+            public void accept(byte[] line, int from, int to) {
+                if (cursor.reset(line, from, to).isBlankLine()) {
+                    if (isRange)
+                        mergeRanges();
+                    isRange = false;
+                    return;
+                }
+
+                if (isRange)
+                    addRange(cursor.nextUnsignedLong(), cursor.nextUnsignedLong());
+                else if (isInRange(cursor.nextUnsignedLong()))
+                    ans++;
+            }
+
+            @Override
+            public long finish() {
+                if (isRange)
+                    mergeRanges();
+                return ans;
+            }
+
+            @Override
+            public List<String> answers(long finished) {
+                return Cafeteria.this.answers(finished);
+            }
+        };
+    }
+
+    static void addRange(long start, long end) {
+        freshRange.add(new long[] { start, end });
+    }
+
+    static boolean isInRange(long ing) {
+        return freshIndex.contains(ing);
     }
 
-    private static void mergeRanges() {
+    static void mergeRanges() {
         TreeSet<long[]> mergedRanges = new TreeSet<>((a, b) -> {
             if (a[0] != b[0])
                 return Long.compare(a[0], b[0]);
@@ -106,20 +175,11 @@ public class Cafeteria {
         }
 
         freshRange = mergedRanges;
+        freshIndex = IntervalIndex.of(freshRange);
     }
 
     private static long countAllFresh() {
-        long ans = 0;
-        Iterator<long[]> itr = freshRange.iterator();
-
-        while(itr.hasNext()) {
-            long[] range = itr.next();
-            long start = range[0], end = range[1];
-
-            ans += end - start + 1;
-        }
-
-        return ans;
+        return freshIndex.totalSize();
     }
 
     private static void printTree() {
@@ -0,0 +1,75 @@
+package day5;
+
+import java.io.PrintStream;
+import java.util.List;
+
+import common.MappedInput;
+import common.Runner;
+import common.Solver;
+import common.utils;
+
+// Online variant of Cafeteria for feeds where new fresh ranges ("3-5") and ingredient checks ("17")
+// are interleaved instead of separated by a blank line. Every check is answered against the ranges
+// seen so far, through a ConcurrentIntervalSet so other threads can share the same set.
+public class CafeteriaFeed implements Solver<MappedInput> {
+    public static PrintStream out = utils.initializeOutputStream();
+
+    // fresh ids of the last solve(), solve() only returns the fresh checks
+    private long freshIds;
+
+    public static void main(String[] args) {
+        try {
+            long ans = Runner.run(new CafeteriaFeed(), out, args);
+
+            out.printf("Answer : %d\n", ans);
+            System.out.println("Answer : " + ans);
+        } catch (Exception e) {
+            System.out.println("Exception : " + e.getMessage());
+            e.printStackTrace(out);
+        }
+    }
+
+    @Override
+    public void setOutput(PrintStream stream) {
+        out = stream;
+    }
+
+    // the feed is consumed as it is read, nothing to do up front
+    @Override
+    public MappedInput parse(MappedInput input) {
+        return input;
+    }
+
+    @Override
+    public long solve(MappedInput input) {
+        ConcurrentIntervalSet fresh = new ConcurrentIntervalSet();
+        long ans = consume(input, fresh);
+
+        freshIds = fresh.countAllFresh();
+        out.printf("Fresh ids : %d\n", freshIds);
+        return ans;
+    }
+
+    @Override
+    public List<String> answers(long solved) {
+        return List.of(Long.toString(solved), Long.toString(freshIds));
+    }
+
+    // applies every line of the feed to the set in order, returns how many checks were fresh
+    static long consume(MappedInput input, ConcurrentIntervalSet fresh) {
+        long ans = 0;
+        do {
+            if (input.isBlankLine())
+                continue;
+
+            long first = input.nextUnsignedLong();
+            if (input.hasNextField()) {
+                fresh.addRange(first, input.nextUnsignedLong());
+            } else if (fresh.isInRange(first)) {
+                ans++;
+            }
+        } while (input.nextLine());
+
+        return ans;
+    }
+}
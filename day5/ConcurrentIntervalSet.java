@@ -0,0 +1,90 @@
+package day5;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Fresh ranges that can be added while other threads are querying. The ranges are kept merged in a
+// ConcurrentSkipListMap (start -> end), readers never lock: isInRange is a floorEntry lookup.
+// Writers are serialised by one lock and publish a merge in an order that never hides an id that
+// was already fresh: every absorbed range is first widened to the merged end and only then removed,
+// so at any point the floor entry of such an id still reaches it.
+public class ConcurrentIntervalSet {
+    private final ConcurrentSkipListMap<Long, Long> ranges = new ConcurrentSkipListMap<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    // only written under writeLock
+    private volatile long freshCount = 0;
+    private volatile int rangeCount = 0;
+
+    public void addRange(long start, long end) {
+        if(start > end)
+            throw new IllegalArgumentException("Empty range : " + start + "-" + end);
+
+        writeLock.lock();
+        try {
+            long mergedStart = start, mergedEnd = end;
+
+            // a range starting before this one that reaches into it
+            Map.Entry<Long, Long> floor = ranges.floorEntry(start);
+            if(floor != null && floor.getValue() >= start) {
+                if(floor.getValue() >= end)
+                    return;
+                mergedStart = floor.getKey();
+            }
+
+            // everything that starts inside the new range gets absorbed
+            NavigableMap<Long, Long> covered = ranges.subMap(mergedStart, true, end, true);
+            ArrayList<Long> absorbed = new ArrayList<>();
+            long removedSize = 0;
+            int mergedRanges = 0;
+            for(Map.Entry<Long, Long> range : covered.entrySet()) {
+                mergedEnd = Math.max(mergedEnd, range.getValue());
+                removedSize += range.getValue() - range.getKey() + 1;
+                mergedRanges++;
+                if(range.getKey() != mergedStart)
+                    absorbed.add(range.getKey());
+            }
+
+            ranges.put(mergedStart, mergedEnd);
+            for(long key : absorbed)
+                ranges.put(key, mergedEnd);
+            for(long key : absorbed)
+                ranges.remove(key);
+
+            freshCount += (mergedEnd - mergedStart + 1) - removedSize;
+            rangeCount += 1 - mergedRanges;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public boolean isInRange(long id) {
+        Map.Entry<Long, Long> floor = ranges.floorEntry(id);
+        return floor != null && floor.getValue() >= id;
+    }
+
+    // number of fresh ids, O(1)
+    public long countAllFresh() {
+        return freshCount;
+    }
+
+    public int rangeCount() {
+        return rangeCount;
+    }
+
+    // consistent frozen copy, for when the writers are done and lookups should be as cheap as possible
+    public IntervalIndex snapshot() {
+        writeLock.lock();
+        try {
+            ArrayList<long[]> merged = new ArrayList<>();
+            for(Map.Entry<Long, Long> range : ranges.entrySet())
+                merged.add(new long[] { range.getKey(), range.getValue() });
+            return IntervalIndex.of(merged);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package day5;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+// Read-only view of sorted, disjoint [start, end] ranges (the output of Cafeteria.mergeRanges) kept in
+// parallel long[]s, so a lookup is a binary search over one array instead of a walk over the TreeSet.
+// prefix[i] is the number of ids covered by the first i ranges.
+public class IntervalIndex {
+    private final long[] starts;
+    private final long[] ends;
+    private final long[] prefix;
+
+    private IntervalIndex(long[] starts, long[] ends) {
+        this.starts = starts;
+        this.ends = ends;
+
+        prefix = new long[starts.length + 1];
+        for(int i=0; i<starts.length; i++)
+            prefix[i+1] = prefix[i] + (ends[i] - starts[i] + 1);
+    }
+
+    // ranges must already be sorted and disjoint
+    public static IntervalIndex of(Collection<long[]> merged) {
+        long[] starts = new long[merged.size()];
+        long[] ends = new long[merged.size()];
+
+        int i = 0;
+        for(long[] range : merged) {
+            if(i > 0 && range[0] <= ends[i-1])
+                throw new IllegalArgumentException("Ranges overlap or are out of order at " + range[0]);
+            starts[i] = range[0];
+            ends[i] = range[1];
+            i++;
+        }
+
+        return new IntervalIndex(starts, ends);
+    }
+
+    public int size() {
+        return starts.length;
+    }
+
+    public boolean contains(long id) {
+        int i = floor(id);
+        return i >= 0 && id <= ends[i];
+    }
+
+    // total number of ids covered
+    public long totalSize() {
+        return prefix[starts.length];
+    }
+
+    // number of covered ids in [from, to]
+    public long count(long from, long to) {
+        if(from > to)
+            return 0;
+        return countUpTo(to) - (from == Long.MIN_VALUE ? 0 : countUpTo(from - 1));
+    }
+
+    private long countUpTo(long id) {
+        int i = floor(id);
+        if(i < 0)
+            return 0;
+        return prefix[i] + Math.min(id, ends[i]) - starts[i] + 1;
+    }
+
+    // index of the last range starting at or before id, -1 if there is none
+    private int floor(long id) {
+        int i = Arrays.binarySearch(starts, id);
+        return i >= 0 ? i : -i - 2;
+    }
+}
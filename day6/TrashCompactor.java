@@ -1,50 +1,23 @@
 package day6;
 
 import java.io.PrintStream;
-import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.List;
 
+import common.MappedInput;
+import common.Runner;
+import common.Solver;
+import common.Trace;
 import common.utils;
 
-public class TrashCompactor {
+public class TrashCompactor implements Solver<Worksheet> {
     public static PrintStream out = utils.initializeOutputStream();
 
+    // part 2 of the last solve(), solve() only returns part 1
+    private long partTwo;
+
     public static void main(String[] args) {
         try {
-            ArrayList<String> lines = utils.getInputLines();
-            long ans = 0;
-
-            long startTime = utils.getCurrentTime();
-            ArrayList<int[]> grid = new ArrayList<>();
-            for(int i=0; i<lines.size()-1; i++) {
-                String[] parts = lines.get(i).trim().split("\\s+");
-
-                int[] numbers = Arrays.stream(parts).mapToInt(Integer::parseInt).toArray();
-                grid.add(numbers);
-            }
-
-            String[] operators = lines.getLast().trim().split("\\s+");
-            int n = grid.size(), m = grid.getFirst().length;
-            for(int i=0; i<m; i++) {
-                // part 1
-                // long columnValue = (operators[i].equals("*")) ? 1 : 0; 
-                // for(int j=0; j<n; j++) {
-                //     int currentNumber = grid.get(j)[i];
-
-                //     if(operators[i].equals("*"))
-                //         columnValue *= currentNumber;
-                //     else
-                //         columnValue += currentNumber;
-                // }
-
-                // ans += columnValue;
-
-                // part 2
-                ans += doSomeStupidShit(grid, n, i, operators[i]);
-            }
-            
-            long endTime = utils.getCurrentTime();
-            utils.printTimeStats(out, startTime, endTime);
+            long ans = Runner.run(new TrashCompactor(), out, args);
 
             out.printf("Answer : %d\n", ans);
             System.out.println("Answer : " + ans);
@@ -54,35 +27,28 @@ public class TrashCompactor {
         }
     }
 
-    private static long doSomeStupidShit(ArrayList<int[]> grid, int n, int col, String op) {
-        int operator = (op.equals("*")) ? 1 : 0;
-        long ans = 0;
-        
-        int maxDigits = 0;
-        for(int i=0; i<n; i++) {
-            int numDigits = String.valueOf(grid.get(i)[col]).length();
-            maxDigits = Math.max(maxDigits, numDigits);
-        }
-        
-        for(int digitPos=0; digitPos<maxDigits; digitPos++) {
-            long cur = 0;
-            for(int i=0; i<n; i++) {
-                int num = grid.get(i)[col];
-                String numStr = String.format("%0" + maxDigits + "d", num);
-                out.printf("Num : %d, String : %s\n", num, numStr);
-                
-                int digit = 0;
-                if(digitPos < numStr.length()) {
-                    digit = numStr.charAt(digitPos) - '0';
-                }
-                
-                if(digit != 0)
-                    cur = cur*10 + digit;
-            }
+    @Override
+    public void setOutput(PrintStream stream) {
+        out = stream;
+    }
 
-            out.printf("%d : %d\n", digitPos+1, cur);
-        }
-        
-        return ans;
+    @Override
+    public Worksheet parse(MappedInput input) {
+        return Worksheet.parse(input);
+    }
+
+    @Override
+    public long solve(Worksheet sheet) {
+        Worksheet.Totals totals = sheet.reduce();
+        if(Trace.DEBUG) Trace.printf(out, "Row wise : %d, column wise : %d\n", totals.rowWise(), totals.columnWise());
+
+        partTwo = totals.columnWise();
+        out.printf("Answer Part 2 : %d\n", partTwo);
+        return totals.rowWise();
+    }
+
+    @Override
+    public List<String> answers(long solved) {
+        return List.of(Long.toString(solved), Long.toString(partTwo));
     }
 }
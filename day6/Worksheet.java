@@ -0,0 +1,144 @@
+package day6;
+
+import java.util.Arrays;
+
+import common.MappedInput;
+
+// The worksheet read straight from the mapped bytes, column by column. Problems are separated by columns that
+// are blank on every line, and the last line holds each problem's operator. Within a problem every line is
+// one number read left to right, and every column is one number read top to bottom, so a single sweep builds
+// both: the row numbers grow by one digit per column, and each column's number is finished when the sweep
+// leaves it. Lines shorter than the widest one count as blank past their end.
+public class Worksheet {
+    private final MappedInput input;
+    private final int numbers;
+    private final int cols;
+
+    // first byte and end (exclusive, without \r) of every line, the operator line last
+    private final long[] starts;
+    private final long[] ends;
+
+    public record Totals(long rowWise, long columnWise) {}
+
+    private Worksheet(MappedInput input, long[] starts, long[] ends, int cols) {
+        if(starts.length < 2)
+            throw new IllegalArgumentException("A worksheet needs number lines and an operator line");
+
+        this.input = input;
+        this.numbers = starts.length - 1;
+        this.cols = cols;
+        this.starts = starts;
+        this.ends = ends;
+    }
+
+    public static Worksheet parse(MappedInput input) {
+        long[] lines = input.lineOffsets();
+        int rows = lines.length - 1;
+        while(rows > 0 && lines[rows] - lines[rows - 1] <= 1)
+            rows--;
+
+        long[] starts = new long[rows], ends = new long[rows];
+        int cols = 0;
+        for(int i=0; i<rows; i++) {
+            input.seek(lines[i]);
+            starts[i] = lines[i];
+            ends[i] = input.lineEnd();
+            cols = Math.max(cols, (int) (ends[i] - starts[i]));
+        }
+
+        return new Worksheet(input, starts, ends, cols);
+    }
+
+    private byte at(int row, int col) {
+        long pos = starts[row] + col;
+        return pos < ends[row] ? input.byteAt(pos) : (byte) ' ';
+    }
+
+    // grand totals with the numbers read along the lines and down the columns
+    public Totals reduce() {
+        // number on each line of the current problem, -1 while it has no digit yet
+        long[] rowValues = new long[numbers];
+        Arrays.fill(rowValues, -1);
+        // numbers of the current problem's columns, the operator can come after the first of them
+        long[] columnValues = new long[16];
+        int columnCount = 0;
+
+        long rowTotal = 0, columnTotal = 0;
+        byte op = 0;
+        boolean open = false;
+
+        for(int c=0; c<=cols; c++) {
+            long columnValue = -1;
+            boolean blank = true;
+
+            if(c < cols) {
+                for(int r=0; r<numbers; r++) {
+                    byte b = at(r, c);
+                    if(b == ' ')
+                        continue;
+                    if(b < '0' || b > '9')
+                        throw new IllegalArgumentException("Unexpected '" + (char) b + "' at line " + (r + 1) + ", column " + (c + 1));
+
+                    blank = false;
+                    int digit = b - '0';
+                    rowValues[r] = Math.addExact(Math.multiplyExact(Math.max(rowValues[r], 0), 10), digit);
+                    columnValue = Math.addExact(Math.multiplyExact(Math.max(columnValue, 0), 10), digit);
+                }
+
+                byte b = at(numbers, c);
+                if(b != ' ') {
+                    if(b != '+' && b != '*')
+                        throw new IllegalArgumentException("Unexpected operator '" + (char) b + "' at column " + (c + 1));
+                    if(op != 0)
+                        throw new IllegalArgumentException("Second operator at column " + (c + 1) + " in the same problem");
+                    blank = false;
+                    op = b;
+                }
+            }
+
+            if(!blank) {
+                open = true;
+                if(columnValue >= 0) {
+                    if(columnCount == columnValues.length)
+                        columnValues = Arrays.copyOf(columnValues, columnCount * 2);
+                    columnValues[columnCount++] = columnValue;
+                }
+                continue;
+            }
+
+            if(!open)
+                continue;
+
+            // a blank column or the right edge closes the problem
+            if(op == 0)
+                throw new IllegalArgumentException("Problem ending at column " + c + " has no operator");
+
+            long rowAcc = identity(op);
+            for(int r=0; r<numbers; r++) {
+                if(rowValues[r] >= 0)
+                    rowAcc = apply(op, rowAcc, rowValues[r]);
+                rowValues[r] = -1;
+            }
+
+            long columnAcc = identity(op);
+            for(int i=0; i<columnCount; i++)
+                columnAcc = apply(op, columnAcc, columnValues[i]);
+
+            rowTotal = Math.addExact(rowTotal, rowAcc);
+            columnTotal = Math.addExact(columnTotal, columnAcc);
+            columnCount = 0;
+            op = 0;
+            open = false;
+        }
+
+        return new Totals(rowTotal, columnTotal);
+    }
+
+    private static long identity(byte op) {
+        return op == '*' ? 1 : 0;
+    }
+
+    private static long apply(byte op, long acc, long value) {
+        return op == '*' ? Math.multiplyExact(acc, value) : Math.addExact(acc, value);
+    }
+}
@@ -0,0 +1,173 @@
+package day7;
+
+import common.MappedInput;
+
+// The manifold as one bitset per row, bit j of a row is set when there is a splitter in column j.
+// Beams are a bitset of the same width: a row splits every beam that lands on a splitter with one
+// and/shift/or per 64 columns, so a row costs O(m/64) whatever the number of beams.
+// Beams split on the outer columns stay where they are instead of leaving the manifold.
+// Splitters in the same row act simultaneously, a beam thrown sideways onto a neighbouring splitter is
+// only split again on the next row that has one under it.
+public class BeamEngine {
+    private final int rows;
+    private final int cols;
+    private final int words;
+    private final int start;
+
+    // splitters[i * words + w] holds columns [64w, 64w+64) of row i
+    private final long[] splitters;
+
+    public BeamEngine(int rows, int cols, int start) {
+        if(start < 0 || start >= cols)
+            throw new IllegalArgumentException("Start column " + start + " outside of a " + cols + " wide manifold");
+
+        this.rows = rows;
+        this.cols = cols;
+        this.words = (cols + 63) >>> 6;
+        this.start = start;
+        this.splitters = new long[rows * words];
+    }
+
+    // 'S' on the first line is the start, '^' is a splitter, anything else is empty
+    public static BeamEngine parse(MappedInput input) {
+        long[] lines = input.lineOffsets();
+        int rows = lines.length - 1;
+        while(rows > 0 && lines[rows] - lines[rows - 1] <= 1)
+            rows--;
+
+        int cols = 0;
+        for(int i=0; i<rows; i++) {
+            input.seek(lines[i]);
+            cols = Math.max(cols, (int) (input.lineEnd() - lines[i]));
+        }
+
+        int start = -1;
+        input.seek(lines[0]);
+        for(long pos = lines[0], end = input.lineEnd(); pos < end; pos++) {
+            if(input.byteAt(pos) == 'S') {
+                start = (int) (pos - lines[0]);
+                break;
+            }
+        }
+
+        BeamEngine engine = new BeamEngine(rows, cols, start);
+        for(int i=1; i<rows; i++) {
+            input.seek(lines[i]);
+            long end = input.lineEnd();
+            for(long pos = lines[i]; pos < end; pos++) {
+                if(input.byteAt(pos) == '^')
+                    engine.setSplitter(i, (int) (pos - lines[i]));
+            }
+        }
+
+        return engine;
+    }
+
+    public void setSplitter(int i, int j) {
+        splitters[i * words + (j >>> 6)] |= 1L << j;
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public int cols() {
+        return cols;
+    }
+
+    // number of times a beam hits a splitter, beams meeting in a column merge into one
+    public long countSplits() {
+        long[] beams = new long[words];
+        long[] hit = new long[words];
+        beams[start >>> 6] = 1L << start;
+
+        long count = 0;
+        for(int i=1; i<rows; i++) {
+            if(!hits(i, beams, hit))
+                continue;
+
+            for(long h : hit)
+                count += Long.bitCount(h);
+            spread(beams, hit);
+        }
+
+        return count;
+    }
+
+    // many-worlds variant: every split doubles the timelines of that beam, timelines[j] is how many of them
+    // are in column j so far. The beam bitset still finds the hit columns, so only those are touched.
+    public long countTimelines() {
+        long[] timelines = new long[cols];
+        long[] moving = new long[cols];
+        long[] beams = new long[words];
+        long[] hit = new long[words];
+        timelines[start] = 1;
+        beams[start >>> 6] = 1L << start;
+
+        for(int i=1; i<rows; i++) {
+            if(!hits(i, beams, hit))
+                continue;
+
+            // take every hit column out before handing anything to the neighbours, splitters act at once
+            for(int w=0; w<words; w++) {
+                for(long h = hit[w]; h != 0; h &= h - 1) {
+                    int j = (w << 6) + Long.numberOfTrailingZeros(h);
+                    moving[j] = timelines[j];
+                    timelines[j] = 0;
+                }
+            }
+
+            for(int w=0; w<words; w++) {
+                for(long h = hit[w]; h != 0; h &= h - 1) {
+                    int j = (w << 6) + Long.numberOfTrailingZeros(h);
+                    int left = j > 0 ? j - 1 : j;
+                    int right = j < cols - 1 ? j + 1 : j;
+
+                    timelines[left] = Math.addExact(timelines[left], moving[j]);
+                    timelines[right] = Math.addExact(timelines[right], moving[j]);
+                }
+            }
+            spread(beams, hit);
+        }
+
+        long total = 0;
+        for(long count : timelines)
+            total = Math.addExact(total, count);
+        return total;
+    }
+
+    // hit = beams on a splitter in row i, returns false when there are none
+    private boolean hits(int i, long[] beams, long[] hit) {
+        int row = i * words;
+
+        boolean any = false;
+        for(int w=0; w<words; w++) {
+            hit[w] = beams[w] & splitters[row + w];
+            any |= hit[w] != 0;
+        }
+        return any;
+    }
+
+    // replaces every hit beam by one on each side of it
+    private void spread(long[] beams, long[] hit) {
+        int last = words - 1;
+        long lastBit = 1L << (cols - 1);
+
+        // the bits that cross a word boundary are carried over from the neighbouring word
+        for(int w=0; w<words; w++) {
+            long left = hit[w] >>> 1;
+            if(w < last)
+                left |= hit[w + 1] << 63;
+            long right = hit[w] << 1;
+            if(w > 0)
+                right |= hit[w - 1] >>> 63;
+
+            beams[w] = beams[w] & ~hit[w] | left | right;
+        }
+
+        // the outer columns keep their beam, and nothing is shifted past the last column
+        beams[0] |= hit[0] & 1L;
+        beams[last] |= hit[last] & lastBit;
+        beams[last] &= lastBit | lastBit - 1;
+    }
+}
@@ -1,38 +1,23 @@
 package day7;
 
 import java.io.PrintStream;
-import java.util.ArrayList;
-import java.util.TreeSet;
+import java.util.List;
 
+import common.MappedInput;
+import common.Runner;
+import common.Solver;
 import common.utils;
 
-public class Laboratories {
+public class Laboratories implements Solver<BeamEngine> {
     public static PrintStream out = utils.initializeOutputStream();
 
+    // part 2 of the last solve(), solve() only returns part 1
+    private long partTwo;
+
     public static void main(String[] args) {
         try {
-            ArrayList<String> lines = utils.getInputLines();
-            int n = lines.size(), m = lines.getFirst().length();
-
-            long startTime = utils.getCurrentTime();
-            int count = 0;
-            int startPos = lines.getFirst().indexOf("S");
-            TreeSet<Integer> beams = new TreeSet<>();
-            beams.add(startPos);
-            for(int i=1; i<n; i++) {
-                String cur = lines.get(i);
-                for(int j=0; j<cur.length(); j++) {
-                    if(cur.charAt(j) == '^' && beams.contains(j)) {
-                        beams.remove(j);
-                        beams.add(j > 0 ? j-1 : j);
-                        beams.add(j < n-1 ? j+1 : j);
-                        count++;
-                    }
-                }
-            }
-            long endTime = utils.getCurrentTime();
-
-            utils.printTimeStats(out, startTime, endTime);
+            long count = Runner.run(new Laboratories(), out, args);
+
             System.out.println("Answer : " + count);
             out.printf("Answer : %d\n", count);
 
@@ -41,4 +26,28 @@ public class Laboratories {
             e.printStackTrace(out);
         }
     }
+
+    @Override
+    public void setOutput(PrintStream stream) {
+        out = stream;
+    }
+
+    @Override
+    public BeamEngine parse(MappedInput input) {
+        return BeamEngine.parse(input);
+    }
+
+    @Override
+    public long solve(BeamEngine manifold) {
+        long count = manifold.countSplits();
+        partTwo = manifold.countTimelines();
+        out.printf("Answer Part 2 : %d\n", partTwo);
+
+        return count;
+    }
+
+    @Override
+    public List<String> answers(long solved) {
+        return List.of(Long.toString(solved), Long.toString(partTwo));
+    }
 }
@@ -0,0 +1,85 @@
+package day8;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import common.PairCursor;
+import common.PointCloud;
+
+// Exact batch alternative to the k-d tree: every pair goes into one long[] as
+// (squared distance | first id | second id), which is sorted once with Arrays.parallelSort.
+// The ids sit in the low bits, so equal distances come out in (first, second) order just like KdTree.
+public class KruskalEdges implements PairCursor {
+    private final long[] edges;
+    private final int idBits;
+    private final long idMask;
+
+    private int pos = -1;
+
+    private KruskalEdges(long[] edges, int idBits) {
+        this.edges = edges;
+        this.idBits = idBits;
+        this.idMask = (1L << idBits) - 1;
+    }
+
+    public static KruskalEdges sorted(PointCloud points) {
+        points.checkDistanceRange();
+        int n = points.size();
+        long pairCount = (long) n * (n - 1) / 2;
+        if(pairCount > Integer.MAX_VALUE - 8)
+            throw new IllegalArgumentException("Too many points for the batch mode : " + n);
+
+        int idBits = Math.max(1, 32 - Integer.numberOfLeadingZeros(n - 1));
+        // keep the sign bit clear so the plain signed sort is the right order
+        int distanceBits = 63 - 2 * idBits;
+        // the range check below shifts by distanceBits, which only works while it is a real width
+        if(distanceBits <= 0 || distanceBits >= Long.SIZE)
+            throw new IllegalStateException("No room for distances next to two " + idBits + " bit ids");
+
+        long[] edges = new long[(int) pairCount];
+        IntStream.range(0, n).parallel().forEach(i -> {
+            int[] xs = points.xs(), ys = points.ys(), zs = points.zs();
+            long xi = xs[i], yi = ys[i], zi = zs[i];
+
+            // row i holds the pairs (i, j > i) and starts after the n-1 + n-2 + ... + n-i pairs before it
+            int offset = (int) ((long) i * (2L * n - i - 1) / 2);
+            for(int j=i+1; j<n; j++) {
+                long dx = xi - xs[j], dy = yi - ys[j], dz = zi - zs[j];
+                long distance = dx * dx + dy * dy + dz * dz;
+                if(distance >>> distanceBits != 0)
+                    throw new IllegalStateException("Distance " + distance + " does not fit in " + distanceBits
+                        + " bits next to the point ids, use the spatial mode instead");
+
+                edges[offset++] = distance << (2 * idBits) | (long) i << idBits | j;
+            }
+        });
+
+        Arrays.parallelSort(edges);
+
+        return new KruskalEdges(edges, idBits);
+    }
+
+    public int size() {
+        return edges.length;
+    }
+
+    @Override
+    public boolean next() {
+        return ++pos < edges.length;
+    }
+
+    @Override
+    public int first() {
+        return (int) (edges[pos] >>> idBits & idMask);
+    }
+
+    @Override
+    public int second() {
+        return (int) (edges[pos] & idMask);
+    }
+
+    @Override
+    public long distance() {
+        return edges[pos] >>> (2 * idBits);
+    }
+}
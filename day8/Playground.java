@@ -1,26 +1,32 @@
 package day8;
 
 import java.io.PrintStream;
-import java.util.ArrayList;
-import java.util.TreeSet;
+import java.util.List;
 
 import common.DSU;
-import common.Point;
+import common.KdTree;
+import common.MappedInput;
+import common.PairCursor;
+import common.PointCloud;
+import common.Runner;
+import common.Solver;
+import common.Trace;
 import common.utils;
 
-public class Playground {
+public class Playground implements Solver<PointCloud> {
     public static PrintStream out = utils.initializeOutputStream();
     public static DSU dsu;
 
-    public static void main(String[] args) {
-        try {
-            long startTime = utils.getCurrentTime();
+    private static final int CONNECTIONS = Integer.getInteger("day8.connections", 10);
+    private static final String MODE = System.getProperty("day8.mode", "spatial");
 
-            long ans = utils.readInputAndSolve(Playground::solve);
+    // part 2 of the last solve(), solve() only returns part 1
+    private long partTwo;
 
-            long endTime = utils.getCurrentTime();
+    public static void main(String[] args) {
+        try {
+            long ans = Runner.run(new Playground(), out, args);
 
-            utils.printTimeStats(out, startTime, endTime);
             out.printf("Asnwer : %d\n", ans);
             System.out.println("Answer : " + ans);
         } catch (Exception e) {
@@ -29,53 +35,76 @@ public class Playground {
         }
     }
 
-    private static long solve(ArrayList<String> lines) {
-        ArrayList<Point> points = new ArrayList<>();
-        for (String line : lines) {
-            String[] parts = line.split(",");
-            int x = Integer.parseInt(parts[0]);
-            int y = Integer.parseInt(parts[1]);
-            int z = Integer.parseInt(parts[2]);
-            points.add(new Point(x, y, z));
-        }
-        // out.printf("Points : %s\n", points);
+    @Override
+    public void setOutput(PrintStream stream) {
+        out = stream;
+    }
+
+    @Override
+    public PointCloud parse(MappedInput input) {
+        return PointCloud.load(input, 3);
+    }
 
+    @Override
+    public long solve(PointCloud points) {
         dsu = new DSU(points.size());
 
-        return runIterations(points, 10);
+        // -Dday8.mode=kruskal sorts every pair up front, fine for dense inputs that fit n^2/2 longs in memory
+        PairCursor pairs = MODE.equals("kruskal") ? KruskalEdges.sorted(points) : new KdTree(points).pairs();
+
+        long ans = connect(points, pairs, CONNECTIONS);
+        partTwo = finishCircuit(points, pairs);
+        out.printf("Answer Part 2 : %d\n", partTwo);
+
+        return ans;
     }
 
-    private static long runIterations(ArrayList<Point> points, int count) {
-        for (int k = 0; k < count; k++) {
-            long minDistance = Long.MAX_VALUE;
-
-            int x = -1, y = -1;
-            for (int i = 0; i < points.size(); i++) {
-                for (int j = i + 1; j < points.size(); j++) {
-                    long distance = points.get(i).distance(points.get(j));
-                    if (distance < minDistance && dsu.find(i) != dsu.find(j)) {
-                        x = i;
-                        y = j;
-                        minDistance = distance;
-                    }
-                }
-            }
+    @Override
+    public List<String> answers(long solved) {
+        return List.of(Long.toString(solved), Long.toString(partTwo));
+    }
 
-            if (x != -1 && y != -1) {
-                out.printf("Point %s, %s at dist=%d\n", points.get(x), points.get(y), minDistance);
-                dsu.union(x, y);
+    static long runIterations(PointCloud points, int count) {
+        return connect(points, new KdTree(points).pairs(), count);
+    }
+
+    // connects the closest not yet connected pair, count times. Pairs come in increasing distance,
+    // so this is the first count edges of Kruskal and pairs already in the same circuit are skipped.
+    static long connect(PointCloud points, PairCursor pairs, int count) {
+        int connected = 0;
+        while (connected < count && pairs.next()) {
+            int x = pairs.first(), y = pairs.second();
+            if (dsu.union(x, y)) {
+                if (Trace.DEBUG) Trace.printf(out, "Point %s, %s at dist=%d\n", points.get(x), points.get(y), pairs.distance());
+                connected++;
             }
         }
-        dsu.print(out);
+        if (Trace.DEBUG) dsu.print(out);
 
-        TreeSet<Integer> set = dsu.components();
-        if (set.size() >= 3) {
-            int largest = set.pollLast();
-            int secondLargest = set.pollLast();
-            int thirdLargest = set.pollLast();
+        int[] top = dsu.topSizes(3);
+        if (top.length >= 3) {
+            int largest = top[0];
+            int secondLargest = top[1];
+            int thirdLargest = top[2];
 
             return (long) largest * secondLargest * thirdLargest;
         }
         return -1;
     }
+
+    // keeps connecting until everything is one circuit, returns the product of the x coordinates of the
+    // two boxes that closed it, or -1 if the points run out first
+    static long finishCircuit(PointCloud points, PairCursor pairs) {
+        if (dsu.componentCount() <= 1)
+            return -1;
+
+        while (pairs.next()) {
+            int x = pairs.first(), y = pairs.second();
+            if (dsu.union(x, y) && dsu.componentCount() == 1) {
+                if (Trace.DEBUG) Trace.printf(out, "Last connection %s, %s at dist=%d\n", points.get(x), points.get(y), pairs.distance());
+                return (long) points.x(x) * points.x(y);
+            }
+        }
+        return -1;
+    }
 }
@@ -1,21 +1,28 @@
 package day9;
 
 import java.io.PrintStream;
-import java.util.ArrayList;
+import java.util.List;
 
-import common.Point;
+import common.MappedInput;
+import common.PointCloud;
+import common.Runner;
+import common.Solver;
+import common.Trace;
 import common.utils;
 
-public class MovieTheater {
+public class MovieTheater implements Solver<PointCloud> {
     public static PrintStream out = utils.initializeOutputStream();
 
+    // only kicks in for tile sets big enough to be worth splitting across cores
+    static final boolean PARALLEL = Boolean.parseBoolean(System.getProperty("day9.parallel", "true"));
+
+    // part 2 of the last solve(), solve() only returns part 1
+    private long partTwo;
+
     public static void main(String[] args) {
         try {
-            long startTime = utils.getCurrentTime();
-            long ans = utils.readInputAndSolve(MovieTheater::findMaxArea);
-            long endTime = utils.getCurrentTime();
-    
-            utils.printTimeStats(out, startTime, endTime);
+            long ans = Runner.run(new MovieTheater(), out, args);
+
             out.printf("Answer : %d\n", ans);
             System.out.println("Answer : " + ans);
         } catch(Exception e) {
@@ -24,33 +31,29 @@ public class MovieTheater {
         }
     }
 
-    private static long findMaxArea(ArrayList<String> lines) {
-        long ans = 0;
+    @Override
+    public void setOutput(PrintStream stream) {
+        out = stream;
+    }
 
-        ArrayList<Point> tiles = new ArrayList<>();
-        for(String line : lines) {
-            String[] parts = line.split(",");
-            int x = Integer.parseInt(parts[0]); 
-            int y = Integer.parseInt(parts[1]);
-            tiles.add(new Point(x, y)); 
-        }
+    @Override
+    public PointCloud parse(MappedInput input) {
+        return PointCloud.load(input, 2);
+    }
 
-        for(int i=0; i<tiles.size(); i++) {
-            for(int j=i+1; j<tiles.size(); j++) {
-                Point a = tiles.get(i);
-                Point b = tiles.get(j);
-
-               long length = a.findHorizontalRelative(b);
-               long breadth = a.findVerticalRelative(b); 
-               long area = length*breadth;
-                if(area>ans)
-                {
-                    out.printf("Points are : %s, %s\n Area : %d\n", a, b, area);
-                }
-               ans = Math.max(ans, area);
-            }
-        }
+    @Override
+    public long solve(PointCloud tiles) {
+        long ans = RectangleSearch.maxArea(tiles, PARALLEL);
+        if(Trace.DEBUG) Trace.printf(out, "Largest rectangle : %d\n", ans);
+
+        partTwo = new PolygonRegion(tiles).maxInsideArea(tiles, PARALLEL);
+        out.printf("Answer Part 2 : %d\n", partTwo);
 
         return ans;
     }
+
+    @Override
+    public List<String> answers(long solved) {
+        return List.of(Long.toString(solved), Long.toString(partTwo));
+    }
 }
@@ -0,0 +1,154 @@
+package day9;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import common.PointCloud;
+
+// The red tiles in input order are the corners of a closed rectilinear loop, and the loop with everything
+// it encloses is the red/green region. Only the distinct tile coordinates matter, so the plane is compressed
+// to a grid where cell 2i+1 is the line x = xs[i] and cell 2i the open band between xs[i-1] and xs[i] (the
+// first and last bands reach out to infinity), same for y. The loop is drawn on that grid, the outside is
+// flood filled from the corner, and a 2D prefix sum over the outside cells answers whether a rectangle is
+// fully inside the region in O(1).
+// Bands between two neighbouring coordinates hold no tiles at all, so they never count as outside even when
+// the fill reaches them.
+final class PolygonRegion {
+    // the JVM's array size limit
+    private static final int MAX_CELLS = Integer.MAX_VALUE - 8;
+
+    private final int[] xs;
+    private final int[] ys;
+    private final int width;
+    private final int height;
+
+    // outside[(cy + 1) * (width + 1) + cx + 1] = outside cells in [0, cx] x [0, cy]
+    private final int[] outside;
+
+    // compressed cell of every tile
+    private final int[] cellX;
+    private final int[] cellY;
+
+    PolygonRegion(PointCloud tiles) {
+        int n = tiles.size();
+        if(n < 4)
+            throw new IllegalArgumentException("A loop needs at least 4 tiles, got " + n);
+
+        xs = Arrays.stream(tiles.xs(), 0, n).sorted().distinct().toArray();
+        ys = Arrays.stream(tiles.ys(), 0, n).sorted().distinct().toArray();
+        width = 2 * xs.length + 1;
+        height = 2 * ys.length + 1;
+        checkGridSize(width, height);
+
+        cellX = new int[n];
+        cellY = new int[n];
+        for(int i=0; i<n; i++) {
+            cellX[i] = 2 * Arrays.binarySearch(xs, tiles.x(i)) + 1;
+            cellY[i] = 2 * Arrays.binarySearch(ys, tiles.y(i)) + 1;
+        }
+
+        boolean[] boundary = new boolean[width * height];
+        for(int i=0; i<n; i++) {
+            int j = (i + 1) % n;
+            if(cellX[i] != cellX[j] && cellY[i] != cellY[j])
+                throw new IllegalArgumentException("Tiles " + tiles.get(i) + " and " + tiles.get(j) + " are not in line");
+
+            int stepX = Integer.signum(cellX[j] - cellX[i]), stepY = Integer.signum(cellY[j] - cellY[i]);
+            for(int x = cellX[i], y = cellY[i]; ; x += stepX, y += stepY) {
+                boundary[y * width + x] = true;
+                if(x == cellX[j] && y == cellY[j])
+                    break;
+            }
+        }
+
+        boolean[] outer = fillOutside(boundary);
+
+        outside = new int[(width + 1) * (height + 1)];
+        for(int y=0; y<height; y++) {
+            int row = 0;
+            boolean hasTilesY = hasTiles(ys, y);
+            for(int x=0; x<width; x++) {
+                if(outer[y * width + x] && hasTilesY && hasTiles(xs, x))
+                    row++;
+                outside[(y + 1) * (width + 1) + x + 1] = outside[y * (width + 1) + x + 1] + row;
+            }
+        }
+    }
+
+    // The grid takes about 10 bytes a cell (boundary, outer, the fill queue and the prefix sums), so around
+    // 23k distinct x and y values already need ~20GB and every array index still has to fit in an int. The
+    // largest array is the (width + 1) x (height + 1) prefix sum
+    private static void checkGridSize(int width, int height) {
+        try {
+            if(Math.multiplyExact(width + 1, height + 1) <= MAX_CELLS)
+                return;
+        } catch(ArithmeticException e) {
+            // too big either way
+        }
+        throw new IllegalArgumentException("Too many distinct coordinates for a compressed grid : "
+            + (width / 2) + " x " + (height / 2));
+    }
+
+    // cell 2i+1 is a tile coordinate, band 2i between two of them is empty when they are neighbours
+    private static boolean hasTiles(int[] coords, int cell) {
+        if((cell & 1) == 1 || cell == 0 || cell == 2 * coords.length)
+            return true;
+        int i = cell >> 1;
+        return coords[i] - coords[i - 1] > 1;
+    }
+
+    private boolean[] fillOutside(boolean[] boundary) {
+        boolean[] outer = new boolean[width * height];
+        int[] queue = new int[width * height];
+        int head = 0, tail = 0;
+        outer[0] = true;
+        queue[tail++] = 0;
+
+        while(head < tail) {
+            int cell = queue[head++];
+            int x = cell % width, y = cell / width;
+            if(x > 0) tail = visit(cell - 1, boundary, outer, queue, tail);
+            if(x < width - 1) tail = visit(cell + 1, boundary, outer, queue, tail);
+            if(y > 0) tail = visit(cell - width, boundary, outer, queue, tail);
+            if(y < height - 1) tail = visit(cell + width, boundary, outer, queue, tail);
+        }
+        return outer;
+    }
+
+    private static int visit(int cell, boolean[] boundary, boolean[] outer, int[] queue, int tail) {
+        if(!boundary[cell] && !outer[cell]) {
+            outer[cell] = true;
+            queue[tail++] = cell;
+        }
+        return tail;
+    }
+
+    // whether the rectangle with tiles i and j as opposite corners is entirely red or green
+    boolean contains(int i, int j) {
+        int x0 = Math.min(cellX[i], cellX[j]), x1 = Math.max(cellX[i], cellX[j]);
+        int y0 = Math.min(cellY[i], cellY[j]), y1 = Math.max(cellY[i], cellY[j]);
+
+        int w = width + 1;
+        int count = outside[(y1 + 1) * w + x1 + 1] - outside[y0 * w + x1 + 1]
+                  - outside[(y1 + 1) * w + x0] + outside[y0 * w + x0];
+        return count == 0;
+    }
+
+    // largest rectangle with red corners that stays inside the region, the area is checked first so the
+    // containment lookup only runs for pairs that would improve on the row's best
+    long maxInsideArea(PointCloud tiles, boolean parallel) {
+        int n = tiles.size();
+        int[] px = tiles.xs(), py = tiles.ys();
+
+        IntStream rows = IntStream.range(0, n);
+        return (parallel ? rows.parallel() : rows).mapToLong(i -> {
+            long best = 0;
+            for(int j=i+1; j<n; j++) {
+                long area = Math.multiplyExact(Math.abs((long) px[i] - px[j]) + 1, Math.abs((long) py[i] - py[j]) + 1);
+                if(area > best && contains(i, j))
+                    best = area;
+            }
+            return best;
+        }).max().orElse(0);
+    }
+}
@@ -0,0 +1,155 @@
+package day9;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import common.PointCloud;
+
+// Largest (|dx|+1) * (|dy|+1) rectangle between two red tiles without looking at every pair.
+// With p as the lower left corner and q as the upper right one, moving p down or left or q up or right only
+// grows the rectangle, so p can be kept to the lower left staircase (tiles with nothing below and left of them)
+// and q to the upper right one. Both staircases sorted by x have y going down, and as p walks along its
+// staircase the best q for it never moves backwards along the other, so a divide and conquer over p with a
+// shrinking window of q finds every p's best q in O((|L| + |U|) log |L|).
+// The other orientation, p upper left and q lower right, is the same search with y mirrored.
+final class RectangleSearch {
+    // below this many lower corners a branch is not worth forking
+    private static final int FORK_THRESHOLD = 4096;
+
+    private RectangleSearch() {}
+
+    static long maxArea(PointCloud tiles, boolean parallel) {
+        int n = tiles.size();
+        if(n < 2)
+            return 0;
+
+        int[] xs = tiles.xs(), ys = tiles.ys();
+        // ~y = -y - 1 reverses the order without overflowing and keeps every difference
+        int[] mirrored = new int[n];
+        for(int i=0; i<n; i++)
+            mirrored[i] = ~ys[i];
+
+        return Math.max(search(xs, ys, n, parallel), search(xs, mirrored, n, parallel));
+    }
+
+    // best rectangle with the first corner below and left of the second
+    private static long search(int[] xs, int[] ys, int n, boolean parallel) {
+        long[] order = sortByX(xs, ys, n);
+
+        // lower left staircase: by x ascending, a tile is kept when it is strictly below everything before it
+        int[] lowX = new int[n], lowY = new int[n];
+        int lows = 0;
+        for(long packed : order) {
+            int x = unpackX(packed), y = unpackY(packed);
+            if(lows == 0 || y < lowY[lows - 1]) {
+                lowX[lows] = x;
+                lowY[lows++] = y;
+            }
+        }
+
+        // upper right staircase: by x descending, kept when strictly above everything after it, then reversed
+        int[] highX = new int[n], highY = new int[n];
+        int highs = 0;
+        for(int i=n-1; i>=0; i--) {
+            int x = unpackX(order[i]), y = unpackY(order[i]);
+            if(highs == 0 || y > highY[highs - 1]) {
+                highX[highs] = x;
+                highY[highs++] = y;
+            }
+        }
+        reverse(highX, highs);
+        reverse(highY, highs);
+
+        Staircases stairs = new Staircases(lowX, lowY, highX, highY);
+        BestCorner task = new BestCorner(stairs, 0, lows - 1, 0, highs - 1, parallel);
+        return parallel && lows > FORK_THRESHOLD ? ForkJoinPool.commonPool().invoke(task) : task.compute();
+    }
+
+    private record Staircases(int[] lowX, int[] lowY, int[] highX, int[] highY) {
+        // area spanned by lower corner i and upper corner j. A pair with the upper corner strictly below and left
+        // is not a rectangle of this orientation at all and is ruled out, one that is only off on one side gets
+        // a negative area, which keeps the best upper corner moving forward only
+        long area(int i, int j) {
+            long dx = (long) highX[j] - lowX[i];
+            long dy = (long) highY[j] - lowY[i];
+            if(dx < 0 && dy < 0)
+                return Long.MIN_VALUE;
+            return Math.multiplyExact(dx + 1, dy + 1);
+        }
+    }
+
+    // best area over lower corners [lo, hi], knowing their best upper corners are within [from, to]
+    @SuppressWarnings("serial") // only ever run in a ForkJoinPool, never serialized
+    private static class BestCorner extends RecursiveTask<Long> {
+        private final Staircases stairs;
+        private final int lo, hi, from, to;
+        private final boolean parallel;
+
+        BestCorner(Staircases stairs, int lo, int hi, int from, int to, boolean parallel) {
+            this.stairs = stairs;
+            this.lo = lo;
+            this.hi = hi;
+            this.from = from;
+            this.to = to;
+            this.parallel = parallel;
+        }
+
+        @Override
+        protected Long compute() {
+            if(lo > hi)
+                return 0L;
+
+            int mid = (lo + hi) >>> 1;
+            int best = from;
+            long bestArea = Long.MIN_VALUE;
+            for(int j=from; j<=to; j++) {
+                long area = stairs.area(mid, j);
+                if(area > bestArea) {
+                    bestArea = area;
+                    best = j;
+                }
+            }
+
+            BestCorner left = new BestCorner(stairs, lo, mid - 1, from, best, parallel);
+            BestCorner right = new BestCorner(stairs, mid + 1, hi, best, to, parallel);
+            long result;
+            if(parallel && hi - lo > FORK_THRESHOLD) {
+                left.fork();
+                result = Math.max(right.compute(), left.join());
+            } else {
+                result = Math.max(left.compute(), right.compute());
+            }
+            return Math.max(result, Math.max(bestArea, 0));
+        }
+    }
+
+    // tiles packed as x in the high half and y, flipped to sort as unsigned, in the low half, so one primitive
+    // sort orders them by x then y
+    private static long[] sortByX(int[] xs, int[] ys, int n) {
+        long[] packed = new long[n];
+        for(int i=0; i<n; i++)
+            packed[i] = (long) xs[i] << 32 | (ys[i] ^ Integer.MIN_VALUE) & 0xFFFFFFFFL;
+        if(n > FORK_THRESHOLD)
+            Arrays.parallelSort(packed);
+        else
+            Arrays.sort(packed);
+        return packed;
+    }
+
+    private static int unpackX(long packed) {
+        return (int) (packed >> 32);
+    }
+
+    private static int unpackY(long packed) {
+        return (int) packed ^ Integer.MIN_VALUE;
+    }
+
+    private static void reverse(int[] values, int n) {
+        for(int i=0, j=n-1; i<j; i++, j--) {
+            int t = values[i];
+            values[i] = values[j];
+            values[j] = t;
+        }
+    }
+}